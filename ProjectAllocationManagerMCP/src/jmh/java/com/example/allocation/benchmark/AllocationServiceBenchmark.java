@@ -0,0 +1,126 @@
+package com.example.allocation.benchmark;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.service.AllocationService;
+import com.example.allocation.service.AllocationService.AllocationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the allocation service's read and write paths at several dataset sizes, for each
+ * storage engine. The {@code *Contended} variants run the same operation from eight threads.
+ * Run with {@code -prof gc} (the default {@code jmh.args}) to get allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllocationServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int allocations;
+
+    @Param({"indexed", "columnar"})
+    public String store;
+
+    private SyntheticDataset dataset;
+    private Path dataFolder;
+    private AllocationService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = SyntheticDataset.generate(allocations);
+        dataFolder = dataset.writeDataFolder();
+        service = new AllocationService(dataFolder.toString(), store);
+        service.loadData();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        SyntheticDataset.delete(dataFolder);
+    }
+
+    @Benchmark
+    public AllocationResult allocateEngineer() {
+        return allocateRandom();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public AllocationResult allocateEngineerContended() {
+        return allocateRandom();
+    }
+
+    @Benchmark
+    public AllocationResult updateAllocation() {
+        return updateRandom();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public AllocationResult updateAllocationContended() {
+        return updateRandom();
+    }
+
+    @Benchmark
+    public List<Allocation> getAllocationsByEngineerId() {
+        return service.getAllocationsByEngineerId(randomEngineer());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<Allocation> getAllocationsByEngineerIdContended() {
+        return service.getAllocationsByEngineerId(randomEngineer());
+    }
+
+    @Benchmark
+    public List<Allocation> getAllocationsByProjectId() {
+        return service.getAllocationsByProjectId(
+                SyntheticDataset.projectId(ThreadLocalRandom.current().nextInt(dataset.projects.size())));
+    }
+
+    // A 1-30 day window of up to 50% inside the seeded history. It fits next to the seeded 50%
+    // blocks until earlier writes of the run fill the engineer up, after which it is rejected.
+    private AllocationResult allocateRandom() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int historyDays = (allocations / dataset.engineers.size() + 1) * SyntheticDataset.BLOCK_DAYS;
+        var start = SyntheticDataset.EPOCH.plusDays(random.nextInt(historyDays)).toLocalDate();
+        return service.allocateEngineer(
+                randomEngineer(),
+                SyntheticDataset.projectId(random.nextInt(dataset.projects.size())),
+                1 + random.nextInt(50),
+                start.toString(),
+                start.plusDays(1 + random.nextInt(SyntheticDataset.BLOCK_DAYS)).toString());
+    }
+
+    // Rewrites a seeded allocation with its own percentage, so it always validates and commits
+    private AllocationResult updateRandom() {
+        Allocation allocation = dataset.allocations.get(ThreadLocalRandom.current().nextInt(allocations));
+        return service.updateAllocation(allocation.id(), allocation.allocationPercentage(), null, null);
+    }
+
+    private String randomEngineer() {
+        return SyntheticDataset.engineerId(ThreadLocalRandom.current().nextInt(dataset.engineers.size()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.allocation.benchmark;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.persistence.BinarySnapshot;
+import com.example.allocation.service.AllocationService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start cost: a full {@code loadData()} from a binary snapshot against parsing the same
+ * allocations from JSON with {@code LocalDateTimeDeserializer}, as the original loader did.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadDataBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int allocations;
+
+    @Param({"indexed", "columnar"})
+    public String store;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private Path dataFolder;
+    private Path allocationsJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticDataset dataset = SyntheticDataset.generate(allocations);
+        dataFolder = dataset.writeDataFolder();
+        allocationsJson = dataFolder.resolve("allocations.json");
+        objectMapper.writeValue(allocationsJson.toFile(), dataset.allocations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticDataset.delete(dataFolder);
+    }
+
+    @Benchmark
+    public AllocationService loadDataFromSnapshot() throws IOException {
+        AllocationService service = new AllocationService(dataFolder.toString(), store);
+        service.loadData();
+        service.close();
+        return service;
+    }
+
+    @Benchmark
+    public void readBinarySnapshot(Blackhole blackhole) throws IOException {
+        BinarySnapshot.read(dataFolder.resolve("snapshot.bin"), blackhole::consume, blackhole::consume,
+                blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Allocation> parseJsonAllocations() throws IOException {
+        try (InputStream in = Files.newInputStream(allocationsJson)) {
+            return objectMapper.readValue(in, new TypeReference<>() {
+            });
+        }
+    }
+}
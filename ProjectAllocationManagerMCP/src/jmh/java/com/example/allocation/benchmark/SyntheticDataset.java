@@ -0,0 +1,99 @@
+package com.example.allocation.benchmark;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.model.Engineer;
+import com.example.allocation.model.Project;
+import com.example.allocation.persistence.BinarySnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic synthetic roster for benchmarks.
+ * <p>
+ * There is one engineer per ten allocations and one project per hundred. Each engineer's
+ * allocations are consecutive 30-day, 50% blocks, so the dataset passes every service
+ * validation and leaves room for new allocations of up to 50%.
+ */
+final class SyntheticDataset {
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+    static final int BLOCK_DAYS = 30;
+
+    final List<Engineer> engineers;
+    final List<Project> projects;
+    final List<Allocation> allocations;
+
+    private SyntheticDataset(List<Engineer> engineers, List<Project> projects, List<Allocation> allocations) {
+        this.engineers = engineers;
+        this.projects = projects;
+        this.allocations = allocations;
+    }
+
+    static SyntheticDataset generate(int allocationCount) {
+        int engineerCount = Math.max(10, allocationCount / 10);
+        int projectCount = Math.max(5, allocationCount / 100);
+        Random random = new Random(42);
+
+        List<Engineer> engineers = new ArrayList<>(engineerCount);
+        for (int i = 0; i < engineerCount; i++) {
+            engineers.add(new Engineer(engineerId(i), "Engineer " + i, "Software Engineer",
+                    List.of("Java", i % 2 == 0 ? "React" : "Docker")));
+        }
+        List<Project> projects = new ArrayList<>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            projects.add(new Project(projectId(i), "Project " + i, "Synthetic project", "active"));
+        }
+        List<Allocation> allocations = new ArrayList<>(allocationCount);
+        for (int i = 0; i < allocationCount; i++) {
+            int block = i / engineerCount;
+            LocalDateTime start = EPOCH.plusDays((long) block * BLOCK_DAYS);
+            allocations.add(new Allocation("alloc-" + i, engineerId(i % engineerCount),
+                    projectId(random.nextInt(projectCount)), 50, start, start.plusDays(BLOCK_DAYS)));
+        }
+        return new SyntheticDataset(engineers, projects, allocations);
+    }
+
+    static String engineerId(int index) {
+        return "eng-" + index;
+    }
+
+    static String projectId(int index) {
+        return "proj-" + index;
+    }
+
+    /**
+     * Writes the dataset as {@code snapshot.bin} into a fresh temporary data folder, which
+     * {@code AllocationService} loads instead of its classpath seed data.
+     */
+    Path writeDataFolder() throws IOException {
+        Path folder = Files.createTempDirectory("allocation-bench");
+        BinarySnapshot.write(folder.resolve("snapshot.bin"), 0, engineers, projects, allocations);
+        return folder;
+    }
+
+    static void delete(Path folder) {
+        if (folder == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.allocation.benchmark;
+
+import com.example.allocation.service.AllocationSchedulers;
+import com.example.allocation.service.AllocationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SYNC against ASYNC tool dispatch under mixed load, modelled on the STDIO transport: every request
+ * is taken off a single inbound thread in arrival order. In {@code sync} mode that thread runs each
+ * call to completion, so a write waiting for its journal fsync delays every read queued behind it.
+ * In {@code async} mode it dispatches through {@link AllocationSchedulers}, as the {@code async}
+ * profile does: reads move to the read scheduler and writes to the write scheduler.
+ * <p>
+ * Six reader and two writer threads share one group; JMH reports throughput and latency
+ * percentiles (p99 included) separately for {@code mixed:listProjects} and {@code mixed:allocate}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class ToolDispatchBenchmark {
+
+    @Param({"sync", "async"})
+    public String mode;
+
+    @Param({"100000"})
+    public int allocations;
+
+    private SyntheticDataset dataset;
+    private Path dataFolder;
+    private AllocationService service;
+    private ExecutorService inbound;
+    private AllocationSchedulers schedulers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = SyntheticDataset.generate(allocations);
+        dataFolder = dataset.writeDataFolder();
+        service = new AllocationService(dataFolder.toString(), "indexed");
+        service.loadData();
+        inbound = Executors.newSingleThreadExecutor();
+        schedulers = new AllocationSchedulers(8, 1024, 4, 256, 4, 256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        inbound.shutdownNow();
+        schedulers.dispose();
+        service.close();
+        SyntheticDataset.delete(dataFolder);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Object listProjects() throws Exception {
+        return call(false, () -> service.listProjects(null, null, 50));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public Object allocate() throws Exception {
+        return call(true, this::allocateRandom);
+    }
+
+    // Queues the call on the inbound thread and waits for its response, like an MCP client
+    private Object call(boolean write, Callable<Object> call) throws Exception {
+        CompletableFuture<Object> response = new CompletableFuture<>();
+        inbound.execute(() -> {
+            if (mode.equals("sync")) {
+                try {
+                    response.complete(call.call());
+                } catch (Exception e) {
+                    response.completeExceptionally(e);
+                }
+                return;
+            }
+            (write ? schedulers.write(call) : schedulers.read(call))
+                    .subscribe(response::complete, response::completeExceptionally);
+        });
+        return response.get();
+    }
+
+    // Same write mix as AllocationServiceBenchmark.allocateEngineer: accepted until engineers fill up
+    private Object allocateRandom() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int historyDays = (allocations / dataset.engineers.size() + 1) * SyntheticDataset.BLOCK_DAYS;
+        var start = SyntheticDataset.EPOCH.plusDays(random.nextInt(historyDays)).toLocalDate();
+        return service.allocateEngineer(
+                SyntheticDataset.engineerId(random.nextInt(dataset.engineers.size())),
+                SyntheticDataset.projectId(random.nextInt(dataset.projects.size())),
+                1 + random.nextInt(50),
+                start.toString(),
+                start.plusDays(1 + random.nextInt(SyntheticDataset.BLOCK_DAYS)).toString());
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.allocation.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives a running allocation server over the HTTP transport ({@code http} profile) with many
+ * concurrent MCP clients, each holding its own session, and reports throughput and latency per tool.
+ * The mix is {@code ListProjects} reads with a share of single-entry {@code AllocateEngineersBatch}
+ * writes; writes land far in the future on random dates so they rarely collide with real data.
+ * <p>
+ * Every write is journaled permanently, so a run with writes refuses to start unless the server
+ * uses a throwaway data folder: start it with {@code --allocation.data-folder=<scratch folder>} and
+ * pass the same folder as {@code --data-folder}. The server reports its folder in
+ * {@code /actuator/info}, and the default {@code data} folder is always refused. Delete the
+ * folder afterwards.
+ * <pre>
+ * java -jar target/*.jar --spring.profiles.active=http --allocation.data-folder=target/loadtest-data
+ * ./mvnw -Ploadtest compile exec:exec \
+ *     -Dloadtest.args="--data-folder=target/loadtest-data --clients=64 --duration=60 --write-percent=10"
+ * </pre>
+ * To compare dispatch modes, run once against a server started with
+ * {@code --spring.ai.mcp.server.type=SYNC --spring.ai.mcp.server.tool-callback-converter=true}.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final LocalDate WRITE_WINDOW_START = LocalDate.of(2100, 1, 1);
+    private static final int WRITE_WINDOW_DAYS = 3650;
+    private static final String DEFAULT_DATA_FOLDER = "data";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        String endpoint = options.getOrDefault("endpoint", "/mcp");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "32"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        int writePercent = Integer.parseInt(options.getOrDefault("write-percent", "10"));
+        if (writePercent > 0) {
+            checkThrowawayDataFolder(url, options.get("data-folder"));
+        }
+
+        List<String> engineerIds;
+        List<String> projectIds;
+        try (McpSyncClient client = connect(url, endpoint)) {
+            engineerIds = ids(client, "ListEngineers");
+            projectIds = ids(client, "ListProjects");
+        }
+        System.out.printf("%s%s: %d clients for %ds, %d%% writes, %d engineers, %d projects%n",
+                url, endpoint, clients, duration.toSeconds(), writePercent, engineerIds.size(), projectIds.size());
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Stats[]>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(pool.submit(() -> runClient(url, endpoint, deadline, writePercent, engineerIds, projectIds)));
+        }
+        Stats reads = new Stats("ListProjects");
+        Stats writes = new Stats("AllocateEngineersBatch");
+        for (Future<Stats[]> future : futures) {
+            Stats[] stats = future.get();
+            reads.merge(stats[0]);
+            writes.merge(stats[1]);
+        }
+        pool.shutdown();
+
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%-24s %10s %10s %10s %10s %10s %8s %8s%n",
+                "tool", "calls", "ops/s", "p50 ms", "p99 ms", "max ms", "errors", "rejected");
+        reads.print(seconds);
+        writes.print(seconds);
+    }
+
+    private static Stats[] runClient(String url, String endpoint, long deadline, int writePercent,
+                                     List<String> engineerIds, List<String> projectIds) {
+        Stats reads = new Stats("ListProjects");
+        Stats writes = new Stats("AllocateEngineersBatch");
+        try (McpSyncClient client = connect(url, endpoint)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                boolean write = random.nextInt(100) < writePercent;
+                McpSchema.CallToolRequest request = write
+                        ? allocateRequest(random, engineerIds, projectIds)
+                        : new McpSchema.CallToolRequest("ListProjects", Map.of("limit", 50));
+                Stats stats = write ? writes : reads;
+                long started = System.nanoTime();
+                try {
+                    McpSchema.CallToolResult result = client.callTool(request);
+                    long elapsed = System.nanoTime() - started;
+                    if (Boolean.TRUE.equals(result.isError())) {
+                        stats.error(elapsed);
+                    } else if (write && !JSON.readTree(text(result)).path("success").asBoolean()) {
+                        stats.rejected(elapsed);
+                    } else {
+                        stats.ok(elapsed);
+                    }
+                } catch (Exception e) {
+                    // Includes 503s from the server's admission limits
+                    stats.error(System.nanoTime() - started);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Client failed to connect: " + e.getMessage());
+        }
+        return new Stats[] {reads, writes};
+    }
+
+    private static McpSchema.CallToolRequest allocateRequest(ThreadLocalRandom random,
+                                                             List<String> engineerIds, List<String> projectIds) {
+        LocalDate start = WRITE_WINDOW_START.plusDays(random.nextInt(WRITE_WINDOW_DAYS));
+        Map<String, Object> allocation = new HashMap<>();
+        allocation.put("engineerId", engineerIds.get(random.nextInt(engineerIds.size())));
+        allocation.put("projectId", projectIds.get(random.nextInt(projectIds.size())));
+        allocation.put("allocationPercentage", 1 + random.nextInt(20));
+        allocation.put("startDate", start.toString());
+        allocation.put("endDate", start.plusDays(1 + random.nextInt(14)).toString());
+        return new McpSchema.CallToolRequest("AllocateEngineersBatch", Map.of("allocations", List.of(allocation)));
+    }
+
+    private static void checkThrowawayDataFolder(String url, String dataFolder) throws Exception {
+        if (dataFolder == null || dataFolder.isBlank()) {
+            refuse("Writes are kept in the server's data folder for good. Start the server with "
+                    + "--allocation.data-folder=<scratch folder> and pass the same --data-folder=<scratch folder>, "
+                    + "or run with --write-percent=0.");
+        }
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(url + "/actuator/info")).timeout(Duration.ofSeconds(10)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        String serverFolder = response.statusCode() == 200
+                ? JSON.readTree(response.body()).path("allocation").path("data-folder").asText(null)
+                : null;
+        if (serverFolder == null) {
+            refuse(url + "/actuator/info does not report allocation.data-folder; is the server on the http profile?");
+        }
+        Path folder = Paths.get(serverFolder).normalize();
+        if (folder.equals(Paths.get(DEFAULT_DATA_FOLDER))) {
+            refuse("The server writes to its default data folder '" + serverFolder + "'; restart it with "
+                    + "--allocation.data-folder=<scratch folder>.");
+        }
+        if (!folder.equals(Paths.get(dataFolder).normalize())) {
+            refuse("The server writes to '" + serverFolder + "', not to --data-folder=" + dataFolder + ".");
+        }
+    }
+
+    private static void refuse(String reason) {
+        System.err.println("Refusing to run: " + reason);
+        System.exit(2);
+    }
+
+    private static McpSyncClient connect(String url, String endpoint) {
+        McpSyncClient client = McpClient.sync(HttpClientStreamableHttpTransport.builder(url).endpoint(endpoint).build())
+                .requestTimeout(Duration.ofSeconds(30))
+                .build();
+        client.initialize();
+        return client;
+    }
+
+    private static List<String> ids(McpSyncClient client, String tool) throws Exception {
+        McpSchema.CallToolResult result = client.callTool(
+                new McpSchema.CallToolRequest(tool, Map.of("fields", List.of("id"), "limit", 200)));
+        List<String> ids = new ArrayList<>();
+        for (JsonNode item : JSON.readTree(text(result)).path("items")) {
+            ids.add(item.path("id").asText());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException(tool + " returned no ids");
+        }
+        return ids;
+    }
+
+    private static String text(McpSchema.CallToolResult result) {
+        return result.content().stream()
+                .filter(McpSchema.TextContent.class::isInstance)
+                .map(content -> ((McpSchema.TextContent) content).text())
+                .findFirst()
+                .orElse("{}");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int split = arg.indexOf('=');
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        return options;
+    }
+
+    private static final class Stats {
+
+        private final String tool;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private int rejected;
+
+        Stats(String tool) {
+            this.tool = tool;
+        }
+
+        void ok(long nanos) {
+            add(nanos);
+        }
+
+        void rejected(long nanos) {
+            rejected++;
+            add(nanos);
+        }
+
+        void error(long nanos) {
+            errors++;
+            add(nanos);
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i]);
+            }
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        void print(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("%-24s %10d %10.1f %10.2f %10.2f %10.2f %8d %8d%n",
+                    tool, count, count / seconds, millis(sorted, 0.50), millis(sorted, 0.99),
+                    millis(sorted, 1.0), errors, rejected);
+        }
+
+        private void add(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.allocation;
 
+import com.example.allocation.tools.AllocateEngineersBatchTool;
+import com.example.allocation.tools.AuditAllocationsTool;
+import com.example.allocation.tools.FindAvailableEngineersTool;
+import com.example.allocation.tools.GetAllocationChangesTool;
+import com.example.allocation.tools.GetCapacityHeatmapTool;
+import com.example.allocation.tools.ListAllocationsTool;
 import com.example.allocation.tools.ListEngineersTool;
 import com.example.allocation.tools.ListProjectsTool;
+import com.example.allocation.tools.ListStateVersionsTool;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
@@ -18,12 +26,27 @@ public class AllocationApplication {
     @Bean
     public ToolCallbackProvider toolCallbackProvider(
             ListEngineersTool listEngineersTool,
-            ListProjectsTool listProjectsTool) {
-        return MethodToolCallbackProvider
+            ListProjectsTool listProjectsTool,
+            ListAllocationsTool listAllocationsTool,
+            AllocateEngineersBatchTool allocateEngineersBatchTool,
+            FindAvailableEngineersTool findAvailableEngineersTool,
+            GetCapacityHeatmapTool getCapacityHeatmapTool,
+            AuditAllocationsTool auditAllocationsTool,
+            GetAllocationChangesTool getAllocationChangesTool,
+            ListStateVersionsTool listStateVersionsTool,
+            ObservationRegistry observationRegistry) {
+        return new ObservedToolCallbackProvider(MethodToolCallbackProvider
                 .builder()
                 .toolObjects(
                         listEngineersTool,
-                        listProjectsTool)
-                .build();
+                        listProjectsTool,
+                        listAllocationsTool,
+                        allocateEngineersBatchTool,
+                        findAvailableEngineersTool,
+                        getCapacityHeatmapTool,
+                        auditAllocationsTool,
+                        getAllocationChangesTool,
+                        listStateVersionsTool)
+                .build(), observationRegistry);
     }
 }
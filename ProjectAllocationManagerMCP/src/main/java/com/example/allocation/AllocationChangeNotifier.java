@@ -0,0 +1,89 @@
+package com.example.allocation;
+
+import com.example.allocation.service.AllocationService;
+import io.modelcontextprotocol.server.McpAsyncServer;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends an MCP {@code notifications/resources/updated} for {@link AllocationResources#CHANGES_URI}
+ * whenever new allocation changes have been published.
+ * <p>
+ * The change feed is polled on a timer rather than pushed from the write path, so writers never
+ * wait on clients and a burst of writes collapses into a single notification per interval. Works
+ * with either server type.
+ */
+@Component
+public class AllocationChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(AllocationChangeNotifier.class);
+
+    private final AllocationService allocationService;
+    private final ObjectProvider<McpSyncServer> mcpServer;
+    private final ObjectProvider<McpAsyncServer> mcpAsyncServer;
+    private final long intervalMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "allocation-change-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long notifiedSequence;
+
+    public AllocationChangeNotifier(
+            AllocationService allocationService,
+            ObjectProvider<McpSyncServer> mcpServer,
+            ObjectProvider<McpAsyncServer> mcpAsyncServer,
+            @Value("${allocation.change-notification-interval-ms:250}") long intervalMillis) {
+        this.allocationService = allocationService;
+        this.mcpServer = mcpServer;
+        this.mcpAsyncServer = mcpAsyncServer;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        notifiedSequence = allocationService.getLatestChangeSequence();
+        scheduler.scheduleWithFixedDelay(this::notifyIfChanged, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void notifyIfChanged() {
+        long latest = allocationService.getLatestChangeSequence();
+        if (latest == notifiedSequence) {
+            return;
+        }
+        McpSyncServer server = mcpServer.getIfAvailable();
+        McpAsyncServer asyncServer = server == null ? mcpAsyncServer.getIfAvailable() : null;
+        if (server == null && asyncServer == null) {
+            return;
+        }
+        McpSchema.ResourcesUpdatedNotification notification =
+                new McpSchema.ResourcesUpdatedNotification(AllocationResources.CHANGES_URI);
+        try {
+            if (server != null) {
+                server.notifyResourcesUpdated(notification);
+            } else {
+                asyncServer.notifyResourcesUpdated(notification).block();
+            }
+            notifiedSequence = latest;
+        } catch (RuntimeException e) {
+            // Clients may come and go; the next change triggers another attempt
+            log.debug("Failed to send allocation change notification", e);
+        }
+    }
+}
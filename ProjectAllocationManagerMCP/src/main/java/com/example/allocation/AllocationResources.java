@@ -0,0 +1,58 @@
+package com.example.allocation;
+
+import com.example.allocation.service.AllocationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import reactor.core.publisher.Mono;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class AllocationResources {
+
+    public static final String CHANGES_URI = "allocations://changes";
+
+    private static final int RECENT_CHANGES = 100;
+
+    // The most recent allocation changes; AllocationChangeNotifier announces updates of this resource
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "SYNC", matchIfMissing = true)
+    public List<McpServerFeatures.SyncResourceSpecification> syncAllocationResources(
+            AllocationService allocationService, ObjectMapper objectMapper) {
+        return List.of(new McpServerFeatures.SyncResourceSpecification(changesResource(),
+                (exchange, request) -> readChanges(allocationService, objectMapper)));
+    }
+
+    // Reading the change feed never blocks, so the async variant completes on the calling thread
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "ASYNC")
+    public List<McpServerFeatures.AsyncResourceSpecification> asyncAllocationResources(
+            AllocationService allocationService, ObjectMapper objectMapper) {
+        return List.of(new McpServerFeatures.AsyncResourceSpecification(changesResource(),
+                (exchange, request) -> Mono.fromCallable(() -> readChanges(allocationService, objectMapper))));
+    }
+
+    private static McpSchema.Resource changesResource() {
+        return new McpSchema.Resource(CHANGES_URI, "Allocation changes",
+                "The latest allocation changes. Use GetAllocationChanges with lastSequence to pull the rest.",
+                "application/json", null);
+    }
+
+    private static McpSchema.ReadResourceResult readChanges(AllocationService allocationService,
+                                                            ObjectMapper objectMapper) {
+        long latest = allocationService.getLatestChangeSequence();
+        try {
+            String json = objectMapper.writeValueAsString(
+                    allocationService.getChangesSince(Math.max(0, latest - RECENT_CHANGES), RECENT_CHANGES));
+            return new McpSchema.ReadResourceResult(
+                    List.of(new McpSchema.TextResourceContents(CHANGES_URI, "application/json", json)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize allocation changes", e);
+        }
+    }
+}
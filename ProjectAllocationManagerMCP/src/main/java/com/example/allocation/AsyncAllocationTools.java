@@ -0,0 +1,72 @@
+package com.example.allocation;
+
+import com.example.allocation.service.AllocationSchedulers;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Tool registration for the reactive server ({@code async} profile).
+ * <p>
+ * Spring AI's own conversion runs every tool callback on the shared bounded-elastic scheduler.
+ * Here each tool keeps the schema and argument binding of its {@code @Tool} method, but returns a
+ * {@code Mono} scheduled by {@link AllocationSchedulers}: reads on the read scheduler, writes on
+ * the write scheduler, everything else on the query scheduler; none of them on the event loop. The profile turns Spring AI's conversion off
+ * ({@code spring.ai.mcp.server.tool-callback-converter=false}) so no tool is registered twice.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "ASYNC")
+public class AsyncAllocationTools {
+
+    // Served from in-memory indexes and state versions without taking an engineer lock
+    private static final Set<String> READ_TOOLS = Set.of("ListEngineers", "ListProjects", "ListAllocations",
+            "GetCapacityHeatmap", "GetProjectStaffing", "GetAllocationChanges", "ListStateVersions");
+    private static final Set<String> WRITE_TOOLS = Set.of("AllocateEngineersBatch");
+
+    @Bean(destroyMethod = "dispose")
+    public AllocationSchedulers allocationSchedulers(
+            @Value("${allocation.async.read-threads:8}") int readThreads,
+            @Value("${allocation.async.read-queue:1024}") int readQueue,
+            @Value("${allocation.async.write-threads:4}") int writeThreads,
+            @Value("${allocation.async.write-queue:256}") int writeQueue,
+            @Value("${allocation.async.query-threads:4}") int queryThreads,
+            @Value("${allocation.async.query-queue:256}") int queryQueue) {
+        return new AllocationSchedulers(readThreads, readQueue, writeThreads, writeQueue, queryThreads, queryQueue);
+    }
+
+    @Bean
+    public List<McpServerFeatures.AsyncToolSpecification> asyncToolSpecifications(
+            ToolCallbackProvider toolCallbackProvider, AllocationSchedulers schedulers) {
+        return Arrays.stream(toolCallbackProvider.getToolCallbacks())
+                .map(callback -> toAsyncSpecification(callback, schedulers))
+                .toList();
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification toAsyncSpecification(
+            ToolCallback callback, AllocationSchedulers schedulers) {
+        McpServerFeatures.SyncToolSpecification tool = McpToolUtils.toSyncToolSpecification(callback);
+        String name = callback.getToolDefinition().name();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+                .tool(tool.tool())
+                .callHandler((exchange, request) -> {
+                    Callable<McpSchema.CallToolResult> call =
+                            () -> tool.callHandler().apply(new McpSyncServerExchange(exchange), request);
+                    return READ_TOOLS.contains(name) ? schedulers.read(call)
+                            : WRITE_TOOLS.contains(name) ? schedulers.write(call)
+                            : schedulers.query(call);
+                })
+                .build();
+    }
+}
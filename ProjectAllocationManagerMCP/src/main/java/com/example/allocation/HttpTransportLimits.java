@@ -0,0 +1,95 @@
+package com.example.allocation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission limits for the HTTP transport ({@code http} profile).
+ * <p>
+ * Three caps, each sized in {@code allocation.http.*}: open TCP connections, enforced by closing a
+ * connection as soon as it is accepted; open event streams ({@code GET} on the MCP endpoint, one per
+ * client session); and MCP requests in flight ({@code POST}). Over either of the last two the server
+ * answers {@code 503} with {@code Retry-After} instead of queueing, so an overloaded server sheds
+ * load at the edge while tool dispatch itself stays bounded by the async schedulers.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class HttpTransportLimits {
+
+    @Bean
+    public NettyServerCustomizer connectionLimit(@Value("${allocation.http.max-connections:256}") int maxConnections) {
+        // Counted per channel: on an HTTP server doOnConnection sees requests rather than TCP
+        // connections, and that count drifted up under load until new connections were refused
+        AtomicInteger open = new AtomicInteger();
+        return server -> server.doOnChannelInit((observer, channel, remoteAddress) -> {
+            if (open.incrementAndGet() > maxConnections) {
+                open.decrementAndGet();
+                channel.close();
+                return;
+            }
+            channel.closeFuture().addListener(closed -> open.decrementAndGet());
+        });
+    }
+
+    @Bean
+    public WebFilter mcpConcurrencyLimit(
+            @Value("${spring.ai.mcp.server.streamable-http.mcp-endpoint:/mcp}") String mcpEndpoint,
+            @Value("${allocation.http.max-sessions:128}") int maxSessions,
+            @Value("${allocation.http.max-concurrent-requests:64}") int maxConcurrentRequests,
+            @Value("${allocation.http.retry-after-seconds:1}") int retryAfterSeconds) {
+        return new ConcurrencyLimitFilter(mcpEndpoint, maxSessions, maxConcurrentRequests, retryAfterSeconds);
+    }
+
+    static final class ConcurrencyLimitFilter implements WebFilter {
+
+        private final String mcpEndpoint;
+        private final Semaphore sessions;
+        private final Semaphore requests;
+        private final String retryAfter;
+
+        ConcurrencyLimitFilter(String mcpEndpoint, int maxSessions, int maxConcurrentRequests, int retryAfterSeconds) {
+            this.mcpEndpoint = mcpEndpoint;
+            this.sessions = new Semaphore(maxSessions);
+            this.requests = new Semaphore(maxConcurrentRequests);
+            this.retryAfter = Integer.toString(retryAfterSeconds);
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+            if (!mcpEndpoint.equals(exchange.getRequest().getPath().pathWithinApplication().value())) {
+                return chain.filter(exchange);
+            }
+            HttpMethod method = exchange.getRequest().getMethod();
+            Semaphore limit = HttpMethod.GET.equals(method) ? sessions
+                    : HttpMethod.POST.equals(method) ? requests
+                    : null;
+            if (limit == null) {
+                return chain.filter(exchange);
+            }
+            if (!limit.tryAcquire()) {
+                return reject(exchange.getResponse());
+            }
+            return chain.filter(exchange).doFinally(signal -> limit.release());
+        }
+
+        private Mono<Void> reject(ServerHttpResponse response) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+            return response.setComplete();
+        }
+    }
+}
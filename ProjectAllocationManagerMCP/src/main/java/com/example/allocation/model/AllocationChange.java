@@ -0,0 +1,41 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the allocation change stream. Allocation events carry the new allocation (and the
+ * previous version for updates); capacity events carry the affected engineer window and the
+ * engineer's peak load in it after the change.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AllocationChange(
+        @JsonProperty("sequence")
+        long sequence,
+        @JsonProperty("type")
+        Type type,
+        @JsonProperty("timestamp")
+        Instant timestamp,
+        @JsonProperty("engineerId")
+        String engineerId,
+        @JsonProperty("allocation")
+        Allocation allocation,
+        @JsonProperty("previous")
+        Allocation previous,
+        @JsonProperty("from")
+        LocalDateTime from,
+        @JsonProperty("to")
+        LocalDateTime to,
+        @JsonProperty("peakLoad")
+        Integer peakLoad
+) {
+
+    public enum Type {
+        ALLOCATION_CREATED,
+        ALLOCATION_UPDATED,
+        CAPACITY_CHANGED
+    }
+}
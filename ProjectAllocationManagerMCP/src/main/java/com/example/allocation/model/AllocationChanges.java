@@ -0,0 +1,20 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Changes after a given sequence. Pass {@code lastSequence} back to get the next ones. When
+ * {@code truncated} is set, changes were lost (the buffer wrapped, or the server restarted) and
+ * the client should re-read the full lists before continuing from {@code lastSequence}.
+ */
+public record AllocationChanges(
+        @JsonProperty("changes")
+        List<AllocationChange> changes,
+        @JsonProperty("lastSequence")
+        long lastSequence,
+        @JsonProperty("truncated")
+        boolean truncated
+) {
+}
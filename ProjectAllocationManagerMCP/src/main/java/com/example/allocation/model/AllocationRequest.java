@@ -0,0 +1,17 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record AllocationRequest(
+        @JsonProperty("engineerId")
+        String engineerId,
+        @JsonProperty("projectId")
+        String projectId,
+        @JsonProperty("allocationPercentage")
+        int allocationPercentage,
+        @JsonProperty("startDate")
+        String startDate,
+        @JsonProperty("endDate")
+        String endDate
+) {
+}
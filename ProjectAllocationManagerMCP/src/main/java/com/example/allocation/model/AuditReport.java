@@ -0,0 +1,23 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Result of a whole-dataset allocation audit. {@code violations} may be truncated;
+ * {@code violationCount} is always the full total.
+ */
+public record AuditReport(
+        @JsonProperty("engineersChecked")
+        int engineersChecked,
+        @JsonProperty("allocationsChecked")
+        long allocationsChecked,
+        @JsonProperty("violationCount")
+        int violationCount,
+        @JsonProperty("violations")
+        List<AuditViolation> violations,
+        @JsonProperty("durationMillis")
+        long durationMillis
+) {
+}
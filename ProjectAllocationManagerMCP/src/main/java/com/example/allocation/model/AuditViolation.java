@@ -0,0 +1,29 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One broken allocation rule found by the audit, with every allocation involved.
+ */
+public record AuditViolation(
+        @JsonProperty("type")
+        Type type,
+        @JsonProperty("engineerId")
+        String engineerId,
+        @JsonProperty("allocationIds")
+        List<String> allocationIds,
+        @JsonProperty("message")
+        String message
+) {
+
+    public enum Type {
+        UNKNOWN_ENGINEER,
+        UNKNOWN_PROJECT,
+        INVALID_PERCENTAGE,
+        INVALID_DATES,
+        OVERALLOCATED,
+        DUPLICATE_PROJECT_OVERLAP
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of a listing. Pass {@code nextCursor} back to get the following page; it is
+ * {@code null} on the last page. Filters are applied to a bounded stretch of the listing per
+ * page, so a page can hold fewer items than asked for, even none, before the last page.
+ */
+public record Page<T>(
+        @JsonProperty("items")
+        List<T> items,
+        @JsonProperty("nextCursor")
+        String nextCursor
+) {
+}
@@ -0,0 +1,18 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * A published, immutable version of the allocation state that list queries can be pinned to.
+ */
+public record StateVersion(
+        @JsonProperty("version")
+        long version,
+        @JsonProperty("publishedAt")
+        Instant publishedAt,
+        @JsonProperty("allocationCount")
+        int allocationCount
+) {
+}
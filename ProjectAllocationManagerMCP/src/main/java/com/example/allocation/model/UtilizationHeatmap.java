@@ -0,0 +1,29 @@
+package com.example.allocation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Average allocated percentage per week for a page of engineers or projects. {@code weekStarts}
+ * holds the Monday (yyyy-MM-dd) of each column; pass {@code nextCursor} back for the next rows.
+ */
+public record UtilizationHeatmap(
+        @JsonProperty("weekStarts")
+        List<String> weekStarts,
+        @JsonProperty("rows")
+        List<Row> rows,
+        @JsonProperty("nextCursor")
+        String nextCursor
+) {
+
+    public record Row(
+            @JsonProperty("id")
+            String id,
+            @JsonProperty("name")
+            String name,
+            @JsonProperty("utilization")
+            int[] utilization
+    ) {
+    }
+}
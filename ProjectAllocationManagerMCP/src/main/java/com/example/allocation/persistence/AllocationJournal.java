@@ -0,0 +1,435 @@
+package com.example.allocation.persistence;
+
+import com.example.allocation.model.Allocation;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Durable record of allocation writes, rooted at a data folder.
+ * <p>
+ * Every created or updated allocation (or batch of them) is appended as one JSON line to the
+ * current log segment.
+ * A single writer thread drains all pending appends, writes them and issues one {@code fsync} for
+ * the whole batch (group commit), so concurrent callers share the cost of the sync. Segments are
+ * named after the first sequence number they hold.
+ * <p>
+ * A snapshot holds the full allocation state as of a sequence number, in the
+ * {@link BinarySnapshot} format. Once it is written, the
+ * segments it covers are deleted. Recovery loads the latest snapshot and replays the remaining
+ * segments. A torn line at the end of a segment (crash mid-write) is cut off the segment.
+ * <p>
+ * A failed write (e.g. a full disk) fails its batch and every write after it until the records
+ * of that batch are cut off the segment again, which is retried on each later write; the server
+ * keeps serving reads meanwhile and resumes writing once the disk recovers.
+ */
+public class AllocationJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AllocationJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_FILE = "allocations-snapshot.bin";
+    private static final int MAX_BATCH = 1024;
+
+    // A single write uses "allocation"; a batch is one record with "allocations" so it is replayed atomically
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(@JsonProperty("seq") long seq,
+                 @JsonProperty("allocation") Allocation allocation,
+                 @JsonProperty("allocations") List<Allocation> allocations) {
+    }
+
+    private record PendingAppend(List<Allocation> allocations, CompletableFuture<Long> result) {
+    }
+
+    // Queued by close() so the writer finishes everything submitted before it and then exits
+    private static final PendingAppend SHUTDOWN = new PendingAppend(null, null);
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int snapshotInterval;
+    private final BlockingQueue<PendingAppend> pending = new LinkedBlockingQueue<>();
+    private final Object segmentLock = new Object();
+
+    // Guarded by segmentLock
+    private FileChannel segment;
+    private long segmentStartSequence;
+    // Bytes of acknowledged records in the current segment; anything after them is a failed batch
+    private long segmentSize;
+    private long lastSequence;
+    private long lastSnapshotSequence;
+    private IOException failure;
+
+    private Thread writer;
+    private volatile boolean closed;
+
+    public AllocationJournal(Path directory, ObjectMapper objectMapper, int snapshotInterval) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Whether a snapshot exists. Without one, the log holds the changes made on top of the seed data.
+     */
+    public boolean hasSnapshot() {
+        return Files.exists(directory.resolve(SNAPSHOT_FILE));
+    }
+
+    /**
+     * Feeds the snapshot (if any) and then every logged allocation to the sink, in write order, and
+     * opens a fresh segment for new appends. Must be called once before {@link #append}.
+     */
+    public void recover(Consumer<Allocation> sink) throws IOException {
+        Files.createDirectories(directory);
+
+        long snapshotSequence = 0;
+        Path snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotPath)) {
+            snapshotSequence = BinarySnapshot.read(snapshotPath, e -> {
+            }, p -> {
+            }, sink);
+        }
+
+        long last = snapshotSequence;
+        for (Path segmentPath : listSegments()) {
+            last = Math.max(last, replaySegment(segmentPath, snapshotSequence, sink));
+        }
+
+        synchronized (segmentLock) {
+            lastSequence = last;
+            lastSnapshotSequence = snapshotSequence;
+            openSegment(last + 1);
+        }
+
+        writer = new Thread(this::writeLoop, "allocation-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Recovered allocation journal in {} up to sequence {}", directory, last);
+    }
+
+    /**
+     * Appends an allocation and blocks until it has been synced to disk.
+     *
+     * @return the sequence number assigned to the write
+     */
+    public long append(Allocation allocation) throws IOException {
+        return appendAll(List.of(allocation));
+    }
+
+    /**
+     * Appends several allocations as one record, so recovery sees either all of them or none, and
+     * blocks until it has been synced to disk.
+     *
+     * @return the sequence number assigned to the record
+     */
+    public long appendAll(List<Allocation> allocations) throws IOException {
+        if (closed) {
+            throw new IOException("Allocation journal is closed");
+        }
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        pending.add(new PendingAppend(List.copyOf(allocations), result));
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for journal sync", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause);
+        }
+    }
+
+    /**
+     * Whether enough writes have been logged since the last snapshot to warrant a new one.
+     */
+    public boolean isSnapshotDue() {
+        synchronized (segmentLock) {
+            return lastSequence - lastSnapshotSequence >= snapshotInterval;
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one. The caller must make sure no append is in
+     * flight, so that the returned sequence matches the state it is about to snapshot.
+     *
+     * @return the last sequence number written before the rotation
+     */
+    public long rotate() throws IOException {
+        synchronized (segmentLock) {
+            // Rotating past a failed batch would leave its records behind for recovery to replay
+            if (failure != null && repair() != null) {
+                throw failure;
+            }
+            if (lastSequence >= segmentStartSequence) {
+                segment.close();
+                openSegment(lastSequence + 1);
+            }
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Writes the full allocation state as of {@code sequence} and deletes the segments it covers.
+     */
+    public void writeSnapshot(long sequence, Collection<Allocation> allocations) throws IOException {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        BinarySnapshot.write(temp, sequence, List.of(), List.of(), allocations);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        synchronized (segmentLock) {
+            lastSnapshotSequence = Math.max(lastSnapshotSequence, sequence);
+        }
+        for (Path path : listSegments()) {
+            if (segmentStart(path) <= sequence && !path.equals(currentSegmentPath())) {
+                Files.deleteIfExists(path);
+            }
+        }
+        log.info("Wrote allocation snapshot at sequence {} ({} allocations)", sequence, allocations.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (writer != null) {
+            pending.add(SHUTDOWN);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        PendingAppend late;
+        while ((late = pending.poll()) != null) {
+            if (late != SHUTDOWN) {
+                late.result().completeExceptionally(new IOException("Allocation journal is closed"));
+            }
+        }
+        synchronized (segmentLock) {
+            if (segment != null) {
+                segment.close();
+            }
+        }
+    }
+
+    // --- Writer thread ---
+
+    // Not interrupt-driven: interrupting a thread blocked in FileChannel I/O closes the channel
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            pending.drainTo(batch, MAX_BATCH - batch.size());
+            int shutdownAt = batch.indexOf(SHUTDOWN);
+            if (shutdownAt >= 0) {
+                batch.subList(shutdownAt, batch.size()).clear();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) {
+        long[] sequences = new long[batch.size()];
+        IOException error;
+        synchronized (segmentLock) {
+            error = failure == null ? null : repair();
+            if (error == null) {
+                try {
+                    long sequence = lastSequence;
+                    StringBuilder lines = new StringBuilder(batch.size() * 192);
+                    for (int i = 0; i < batch.size(); i++) {
+                        sequences[i] = ++sequence;
+                        List<Allocation> allocations = batch.get(i).allocations();
+                        Entry entry = allocations.size() == 1
+                                ? new Entry(sequence, allocations.get(0), null)
+                                : new Entry(sequence, null, allocations);
+                        lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        segment.write(buffer);
+                    }
+                    segment.force(false);
+                    lastSequence = sequence;
+                    segmentSize += buffer.limit();
+                } catch (IOException e) {
+                    // Part of the batch may be on disk; no write is accepted until repair() cuts it off
+                    log.error("Allocation journal write failed; refusing writes until the segment is repaired", e);
+                    failure = e;
+                    error = e;
+                }
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (error == null) {
+                batch.get(i).result().complete(sequences[i]);
+            } else {
+                batch.get(i).result().completeExceptionally(error);
+            }
+        }
+    }
+
+    // After a failed batch, e.g. on a full disk, the segment may end in part of that batch. Its
+    // records were never acknowledged, so they are cut off on a fresh channel and writing resumes.
+    // Until that succeeds every write fails with the original error. Caller holds segmentLock.
+    private IOException repair() {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.debug("Closing the failed journal segment", e);
+        }
+        try {
+            FileChannel channel = FileChannel.open(segmentPath(segmentStartSequence), StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            try {
+                channel.truncate(segmentSize);
+                channel.force(true);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            segment = channel;
+        } catch (IOException e) {
+            log.warn("Allocation journal is still failing: {}", e.getMessage());
+            return failure;
+        }
+        log.info("Allocation journal recovered from the write failure: {}", failure.getMessage());
+        failure = null;
+        return null;
+    }
+
+    // --- Segments ---
+
+    private void openSegment(long startSequence) throws IOException {
+        segmentStartSequence = startSequence;
+        segment = FileChannel.open(segmentPath(startSequence), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = segment.size();
+    }
+
+    private Path currentSegmentPath() {
+        synchronized (segmentLock) {
+            return segmentPath(segmentStartSequence);
+        }
+    }
+
+    private Path segmentPath(long startSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startSequence, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentStart(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // A record is acknowledged only once its line, newline included, is on disk, so an unterminated
+    // or unparsable last line is a write that never completed. It is cut off the file: the next
+    // segment may be this same file (when the torn record was its first), and new appends must not
+    // run on from the torn bytes.
+    private long replaySegment(Path path, long snapshotSequence, Consumer<Allocation> sink)
+            throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        long last = 0;
+        int start = 0;
+        while (start < bytes.length) {
+            int end = indexOfNewline(bytes, start);
+            if (end < 0) {
+                truncateTornRecord(path, start);
+                break;
+            }
+            String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                Entry entry;
+                try {
+                    entry = objectMapper.readValue(line, Entry.class);
+                } catch (JsonProcessingException e) {
+                    if (end + 1 == bytes.length) {
+                        truncateTornRecord(path, start);
+                        break;
+                    }
+                    throw new IOException("Corrupt allocation journal record in " + path, e);
+                }
+                if (entry.seq() > snapshotSequence) {
+                    if (entry.allocation() != null) {
+                        sink.accept(entry.allocation());
+                    }
+                    if (entry.allocations() != null) {
+                        entry.allocations().forEach(sink);
+                    }
+                }
+                last = Math.max(last, entry.seq());
+            }
+            start = end + 1;
+        }
+        return last;
+    }
+
+    private static int indexOfNewline(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void truncateTornRecord(Path path, long size) throws IOException {
+        log.warn("Truncating torn record at the end of {}", path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+}
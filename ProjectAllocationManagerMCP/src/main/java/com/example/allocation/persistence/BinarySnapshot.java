@@ -0,0 +1,215 @@
+package com.example.allocation.persistence;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.model.Engineer;
+import com.example.allocation.model.Project;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary image of engineers, projects and allocations for fast cold starts.
+ * <p>
+ * Every string is written once to a string table and referenced by index, dates are stored as
+ * epoch days and percentages as single bytes. Reading maps the file into memory and decodes it
+ * without any JSON parsing. Allocation dates are day-precision, which matches how
+ * {@code AllocationService} creates them.
+ * <p>
+ * Layout (big-endian): magic, version, sequence, string table, engineers, projects, allocations.
+ * Each section is an {@code int} count followed by fixed-shape records of string-table indexes.
+ */
+public final class BinarySnapshot {
+
+    private static final int MAGIC = 0x414C4F43; // "ALOC"
+    private static final short VERSION = 1;
+    private static final int NO_STRING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Writes a snapshot; {@code sequence} is the journal position the state corresponds to.
+     */
+    public static void write(Path path, long sequence, Collection<Engineer> engineers,
+                             Collection<Project> projects, Collection<Allocation> allocations) throws IOException {
+        StringTable strings = new StringTable();
+        for (Engineer e : engineers) {
+            strings.add(e.id());
+            strings.add(e.name());
+            strings.add(e.role());
+            if (e.skills() != null) {
+                e.skills().forEach(strings::add);
+            }
+        }
+        for (Project p : projects) {
+            strings.add(p.id());
+            strings.add(p.name());
+            strings.add(p.description());
+            strings.add(p.status());
+        }
+        for (Allocation a : allocations) {
+            strings.add(a.id());
+            strings.add(a.engineerId());
+            strings.add(a.projectId());
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(sequence);
+
+            out.writeInt(strings.values.size());
+            for (String value : strings.values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(engineers.size());
+            for (Engineer e : engineers) {
+                out.writeInt(strings.indexOf(e.id()));
+                out.writeInt(strings.indexOf(e.name()));
+                out.writeInt(strings.indexOf(e.role()));
+                List<String> skills = e.skills() != null ? e.skills() : List.of();
+                out.writeShort(skills.size());
+                for (String skill : skills) {
+                    out.writeInt(strings.indexOf(skill));
+                }
+            }
+
+            out.writeInt(projects.size());
+            for (Project p : projects) {
+                out.writeInt(strings.indexOf(p.id()));
+                out.writeInt(strings.indexOf(p.name()));
+                out.writeInt(strings.indexOf(p.description()));
+                out.writeInt(strings.indexOf(p.status()));
+            }
+
+            out.writeInt(allocations.size());
+            for (Allocation a : allocations) {
+                out.writeInt(strings.indexOf(a.id()));
+                out.writeInt(strings.indexOf(a.engineerId()));
+                out.writeInt(strings.indexOf(a.projectId()));
+                out.writeInt(toEpochDay(a.startDate()));
+                out.writeInt(toEpochDay(a.endDate()));
+                out.writeByte(a.allocationPercentage());
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot, handing every record to the matching sink in file order.
+     *
+     * @return the journal sequence the snapshot was taken at
+     */
+    public static long read(Path path, Consumer<Engineer> engineerSink, Consumer<Project> projectSink,
+                            Consumer<Allocation> allocationSink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " is too large to map");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not an allocation snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+            long sequence = buffer.getLong();
+
+            String[] strings = new String[buffer.getInt()];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt();
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            int engineerCount = buffer.getInt();
+            for (int i = 0; i < engineerCount; i++) {
+                String id = string(strings, buffer.getInt());
+                String name = string(strings, buffer.getInt());
+                String role = string(strings, buffer.getInt());
+                int skillCount = buffer.getShort();
+                List<String> skills = new ArrayList<>(skillCount);
+                for (int s = 0; s < skillCount; s++) {
+                    skills.add(string(strings, buffer.getInt()));
+                }
+                engineerSink.accept(new Engineer(id, name, role, skills));
+            }
+
+            int projectCount = buffer.getInt();
+            for (int i = 0; i < projectCount; i++) {
+                projectSink.accept(new Project(
+                        string(strings, buffer.getInt()),
+                        string(strings, buffer.getInt()),
+                        string(strings, buffer.getInt()),
+                        string(strings, buffer.getInt())));
+            }
+
+            int allocationCount = buffer.getInt();
+            for (int i = 0; i < allocationCount; i++) {
+                String id = string(strings, buffer.getInt());
+                String engineerId = string(strings, buffer.getInt());
+                String projectId = string(strings, buffer.getInt());
+                LocalDateTime startDate = fromEpochDay(buffer.getInt());
+                LocalDateTime endDate = fromEpochDay(buffer.getInt());
+                int percentage = buffer.get();
+                allocationSink.accept(new Allocation(id, engineerId, projectId, percentage, startDate, endDate));
+            }
+            return sequence;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt snapshot " + path, e);
+        }
+    }
+
+    private static String string(String[] strings, int index) {
+        return index == NO_STRING ? null : strings[index];
+    }
+
+    private static int toEpochDay(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : Math.toIntExact(dateTime.toLocalDate().toEpochDay());
+    }
+
+    private static LocalDateTime fromEpochDay(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay).atStartOfDay();
+    }
+
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        void add(String value) {
+            if (value != null && !indexes.containsKey(value)) {
+                indexes.put(value, values.size());
+                values.add(value);
+            }
+        }
+
+        int indexOf(String value) {
+            return value == null ? NO_STRING : indexes.get(value);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.allocation.persistence;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.model.Engineer;
+import com.example.allocation.model.Project;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Command-line converter from the {@code engineers.json}, {@code projects.json} and
+ * {@code allocations.json} files of a data folder to a {@link BinarySnapshot}.
+ * <p>
+ * Usage: {@code SnapshotConverter <data folder> [output file]}. The output defaults to
+ * {@code <data folder>/snapshot.bin}, which is where {@code AllocationService} looks for it.
+ */
+public final class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SnapshotConverter <data folder> [output file]");
+            System.exit(1);
+        }
+        Path folder = Paths.get(args[0]);
+        Path output = args.length > 1 ? Paths.get(args[1]) : folder.resolve("snapshot.bin");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        long started = System.nanoTime();
+        List<Engineer> engineers = read(objectMapper, folder.resolve("engineers.json"), new TypeReference<>() {
+        });
+        List<Project> projects = read(objectMapper, folder.resolve("projects.json"), new TypeReference<>() {
+        });
+        List<Allocation> allocations = read(objectMapper, folder.resolve("allocations.json"), new TypeReference<>() {
+        });
+        BinarySnapshot.write(output, 0, engineers, projects, allocations);
+
+        System.out.printf("Wrote %d engineers, %d projects and %d allocations to %s (%d bytes) in %d ms%n",
+                engineers.size(), projects.size(), allocations.size(), output, Files.size(output),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static <T> List<T> read(ObjectMapper objectMapper, Path path, TypeReference<List<T>> type)
+            throws IOException {
+        if (!Files.exists(path)) {
+            return List.of();
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.model.AuditViolation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Checks every stored allocation against the rules {@code allocateEngineer} enforces on new ones:
+ * known engineer and project, a percentage of 1-100, an end date after the start date, at most
+ * 100% per engineer at any instant, and no two overlapping allocations of one engineer to the
+ * same project.
+ * <p>
+ * Work is partitioned by engineer, since every rule is local to one engineer's allocations, and
+ * the partitions are split across a {@link ForkJoinPool}. Each engineer is checked with a single
+ * sweep over its allocations sorted by start, so the audit is O(n log n) overall and scales with
+ * the pool's parallelism.
+ */
+final class AllocationAuditor {
+
+    // Engineers per leaf task; small enough to balance skewed engineers, large enough to amortize forking
+    private static final int ENGINEERS_PER_TASK = 256;
+
+    private final Function<String, List<Allocation>> allocationsByEngineer;
+    private final Predicate<String> engineerExists;
+    private final Predicate<String> projectExists;
+
+    AllocationAuditor(Function<String, List<Allocation>> allocationsByEngineer,
+                      Predicate<String> engineerExists, Predicate<String> projectExists) {
+        this.allocationsByEngineer = allocationsByEngineer;
+        this.engineerExists = engineerExists;
+        this.projectExists = projectExists;
+    }
+
+    record Result(List<AuditViolation> violations, long allocationsChecked) {
+    }
+
+    /**
+     * Audits the given engineers; violations come back ordered by engineer id.
+     */
+    Result audit(ForkJoinPool pool, Collection<String> engineerIds) {
+        String[] ids = engineerIds.toArray(new String[0]);
+        Arrays.sort(ids);
+        return pool.invoke(new AuditTask(ids, 0, ids.length));
+    }
+
+    private final class AuditTask extends RecursiveTask<Result> {
+        private final String[] engineerIds;
+        private final int from;
+        private final int to;
+
+        AuditTask(String[] engineerIds, int from, int to) {
+            this.engineerIds = engineerIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= ENGINEERS_PER_TASK) {
+                List<AuditViolation> violations = new ArrayList<>();
+                long checked = 0;
+                for (int i = from; i < to; i++) {
+                    checked += auditEngineer(engineerIds[i], violations);
+                }
+                return new Result(violations, checked);
+            }
+            int middle = (from + to) >>> 1;
+            AuditTask upper = new AuditTask(engineerIds, middle, to);
+            upper.fork();
+            Result lower = new AuditTask(engineerIds, from, middle).compute();
+            Result upperResult = upper.join();
+
+            List<AuditViolation> violations = lower.violations();
+            violations.addAll(upperResult.violations());
+            return new Result(violations, lower.allocationsChecked() + upperResult.allocationsChecked());
+        }
+    }
+
+    // --- Per-engineer checks ---
+
+    private int auditEngineer(String engineerId, List<AuditViolation> violations) {
+        List<Allocation> allocations = allocationsByEngineer.apply(engineerId);
+        if (allocations.isEmpty()) {
+            return 0;
+        }
+        if (!engineerExists.test(engineerId)) {
+            violations.add(new AuditViolation(AuditViolation.Type.UNKNOWN_ENGINEER, engineerId,
+                    allocations.stream().map(Allocation::id).toList(),
+                    String.format("Engineer '%s' does not exist.", engineerId)));
+        }
+
+        // Only allocations with a valid interval take part in the overlap sweeps
+        List<Allocation> valid = new ArrayList<>(allocations.size());
+        for (Allocation a : allocations) {
+            if (!projectExists.test(a.projectId())) {
+                violations.add(single(AuditViolation.Type.UNKNOWN_PROJECT, a,
+                        String.format("Project '%s' does not exist.", a.projectId())));
+            }
+            if (a.allocationPercentage() < 1 || a.allocationPercentage() > 100) {
+                violations.add(single(AuditViolation.Type.INVALID_PERCENTAGE, a,
+                        String.format("Allocation percentage %d is not between 1 and 100.",
+                                a.allocationPercentage())));
+            }
+            if (a.startDate() == null || (a.endDate() != null && !a.endDate().isAfter(a.startDate()))) {
+                violations.add(single(AuditViolation.Type.INVALID_DATES, a,
+                        "End date must be after start date."));
+            } else {
+                valid.add(a);
+            }
+        }
+
+        findOverallocation(engineerId, valid, violations);
+        findDuplicateProjects(engineerId, valid, violations);
+        return allocations.size();
+    }
+
+    // Sweeps start/end events in time order and reports each maximal period above 100%
+    private static void findOverallocation(String engineerId, List<Allocation> allocations,
+                                           List<AuditViolation> violations) {
+        List<Allocation> byStart = new ArrayList<>(allocations);
+        byStart.sort(Comparator.comparing(Allocation::startDate));
+        PriorityQueue<Allocation> byEnd = new PriorityQueue<>(Comparator.comparing(Allocation::endDate,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        int load = 0;
+        int peak = 0;
+        Set<Allocation> involved = null;
+        LocalDateTime overloadedFrom = null;
+        int next = 0;
+        while (next < byStart.size() || !byEnd.isEmpty()) {
+            LocalDateTime at = nextInstant(byStart, next, byEnd);
+            if (at == null) {
+                break; // only open-ended allocations remain active
+            }
+            // Ends before starts at the same instant: intervals are half-open
+            while (!byEnd.isEmpty() && at.equals(byEnd.peek().endDate())) {
+                load -= byEnd.poll().allocationPercentage();
+            }
+            while (next < byStart.size() && at.equals(byStart.get(next).startDate())) {
+                Allocation a = byStart.get(next++);
+                load += a.allocationPercentage();
+                byEnd.add(a);
+                if (involved != null) {
+                    involved.add(a);
+                }
+            }
+
+            if (load > 100) {
+                if (involved == null) {
+                    involved = new LinkedHashSet<>(byEnd);
+                    overloadedFrom = at;
+                    peak = load;
+                } else {
+                    peak = Math.max(peak, load);
+                }
+            } else if (involved != null) {
+                violations.add(overallocated(engineerId, involved, peak, overloadedFrom, at));
+                involved = null;
+            }
+        }
+        if (involved != null) {
+            violations.add(overallocated(engineerId, involved, peak, overloadedFrom, null));
+        }
+    }
+
+    private static LocalDateTime nextInstant(List<Allocation> byStart, int next, PriorityQueue<Allocation> byEnd) {
+        LocalDateTime nextStart = next < byStart.size() ? byStart.get(next).startDate() : null;
+        LocalDateTime nextEnd = byEnd.isEmpty() ? null : byEnd.peek().endDate();
+        if (nextStart == null) {
+            return nextEnd;
+        }
+        return nextEnd != null && nextEnd.isBefore(nextStart) ? nextEnd : nextStart;
+    }
+
+    // Within each project, every allocation is compared with the furthest-reaching earlier one
+    private static void findDuplicateProjects(String engineerId, List<Allocation> allocations,
+                                              List<AuditViolation> violations) {
+        List<Allocation> sorted = new ArrayList<>(allocations);
+        sorted.sort(Comparator.comparing(Allocation::projectId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Allocation::startDate));
+
+        Allocation furthest = null;
+        for (Allocation a : sorted) {
+            if (furthest == null || !Objects.equals(furthest.projectId(), a.projectId())) {
+                furthest = a;
+                continue;
+            }
+            if (furthest.endDate() == null || furthest.endDate().isAfter(a.startDate())) {
+                violations.add(new AuditViolation(AuditViolation.Type.DUPLICATE_PROJECT_OVERLAP, engineerId,
+                        List.of(furthest.id(), a.id()),
+                        String.format("Allocations '%s' and '%s' both assign the engineer to project '%s' "
+                                + "over the same period.", furthest.id(), a.id(), a.projectId())));
+            }
+            if (furthest.endDate() != null && (a.endDate() == null || a.endDate().isAfter(furthest.endDate()))) {
+                furthest = a;
+            }
+        }
+    }
+
+    private static AuditViolation single(AuditViolation.Type type, Allocation allocation, String message) {
+        return new AuditViolation(type, allocation.engineerId(), List.of(allocation.id()), message);
+    }
+
+    private static AuditViolation overallocated(String engineerId, Set<Allocation> involved, int peak,
+                                                LocalDateTime from, LocalDateTime to) {
+        return new AuditViolation(AuditViolation.Type.OVERALLOCATED, engineerId,
+                involved.stream().map(Allocation::id).toList(),
+                String.format("Engineer is allocated up to %d%% from %s %s.", peak, from.toLocalDate(),
+                        to != null ? "to " + to.toLocalDate() : "onwards"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.allocation.service;
+
+/**
+ * Source of ids for new allocations.
+ * <p>
+ * {@link AllocationService} uses a {@link TimeOrderedIdGenerator} unless the application context
+ * defines a bean of this type. Implementations must be thread-safe and must never return an id
+ * they have returned or {@linkplain #observe observed} before.
+ */
+public interface AllocationIdGenerator {
+
+    String nextId();
+
+    /**
+     * Called with every allocation id found while loading, before any id is generated, so the
+     * generator can stay clear of them.
+     */
+    default void observe(String existingId) {
+    }
+}
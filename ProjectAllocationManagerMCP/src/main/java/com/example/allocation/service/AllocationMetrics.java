@@ -0,0 +1,139 @@
+package com.example.allocation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the allocation service.
+ * <p>
+ * {@code allocation.operations} times every business method by operation and outcome, and
+ * {@code allocation.rejections} counts rejected requests by reason. Every timer and counter is
+ * registered up front, so recording is an array index and an atomic add with no tag lookup or
+ * allocation. Without a registry ({@link #DISABLED}) nothing is recorded and no clock is read.
+ * Percentile histograms are left to {@code management.metrics.distribution.*}.
+ */
+final class AllocationMetrics {
+
+    static final AllocationMetrics DISABLED = new AllocationMetrics(null);
+
+    enum Operation {
+        ALLOCATE_ENGINEER, ALLOCATE_BATCH, UPDATE_ALLOCATION, FIND_AVAILABLE_ENGINEERS, CAPACITY_HEATMAP,
+        PROJECT_STAFFING, AUDIT, LIST_ENGINEERS, LIST_PROJECTS, LIST_ALLOCATIONS, CHANGES
+    }
+
+    enum Outcome {
+        SUCCESS, REJECTED, ERROR
+    }
+
+    enum Rejection {
+        NOT_FOUND, INVALID_REQUEST, OVER_ALLOCATION, DUPLICATE, PERSISTENCE_FAILURE
+    }
+
+    private final MeterRegistry registry;
+    private final Timer[][] timers;
+    private final Counter[] rejections;
+
+    AllocationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        if (registry == null) {
+            timers = null;
+            rejections = null;
+            return;
+        }
+        timers = new Timer[Operation.values().length][Outcome.values().length];
+        for (Operation operation : Operation.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                timers[operation.ordinal()][outcome.ordinal()] = Timer.builder("allocation.operations")
+                        .description("Allocation service calls")
+                        .tag("operation", tag(operation))
+                        .tag("outcome", tag(outcome))
+                        .register(registry);
+            }
+        }
+        rejections = new Counter[Rejection.values().length];
+        for (Rejection reason : Rejection.values()) {
+            rejections[reason.ordinal()] = Counter.builder("allocation.rejections")
+                    .description("Allocation requests rejected by validation")
+                    .tag("reason", tag(reason))
+                    .register(registry);
+        }
+    }
+
+    boolean enabled() {
+        return registry != null;
+    }
+
+    long start() {
+        return registry == null ? 0 : System.nanoTime();
+    }
+
+    void record(Operation operation, Outcome outcome, long started) {
+        if (registry != null) {
+            timers[operation.ordinal()][outcome.ordinal()].record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Times a call; a result failing isSuccess, or an IllegalArgumentException, counts as rejected
+    <T> T timed(Operation operation, Supplier<T> call, Predicate<T> isSuccess) {
+        long started = start();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            T result = call.get();
+            outcome = isSuccess.test(result) ? Outcome.SUCCESS : Outcome.REJECTED;
+            return result;
+        } catch (IllegalArgumentException e) {
+            outcome = Outcome.REJECTED;
+            rejected(Rejection.INVALID_REQUEST);
+            throw e;
+        } finally {
+            record(operation, outcome, started);
+        }
+    }
+
+    <T> T timed(Operation operation, Supplier<T> call) {
+        return timed(operation, call, result -> true);
+    }
+
+    void rejected(Rejection reason) {
+        if (registry != null) {
+            rejections[reason.ordinal()].increment();
+        }
+    }
+
+    void datasetSize(String kind, Supplier<Number> size) {
+        if (registry != null) {
+            Gauge.builder("allocation.dataset.size", size)
+                    .description("Engineers, projects and allocations held in memory")
+                    .tag("kind", kind)
+                    .register(registry);
+        }
+    }
+
+    void stateVersion(Supplier<Number> version) {
+        if (registry != null) {
+            Gauge.builder("allocation.state.version", version)
+                    .description("Number of the current published allocation state")
+                    .register(registry);
+        }
+    }
+
+    void loaded(long nanos) {
+        if (registry != null) {
+            Timer.builder("allocation.load")
+                    .description("Time to load engineers, projects and allocations at startup")
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
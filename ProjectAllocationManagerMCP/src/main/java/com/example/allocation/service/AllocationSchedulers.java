@@ -0,0 +1,64 @@
+package com.example.allocation.service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Where allocation work runs when the MCP server is reactive ({@code spring.ai.mcp.server.type=ASYNC}).
+ * <p>
+ * Reads never wait on I/O, but they are not free: a page may scan thousands of entries, a heatmap
+ * reads synchronized weekly loads, and a columnar read falls back to the store's read lock when a
+ * write races with it. {@link #read} therefore runs them on their own bounded scheduler rather than
+ * on the subscribing thread, which is a transport event loop. Writes hold an engineer's lock until
+ * the journal has reached disk, so {@link #write} runs them on a dedicated bounded scheduler, where
+ * a slow fsync holds up only other writes. Whole-dataset searches and audits go through
+ * {@link #query}, a third bounded scheduler, so they neither stall reads nor queue behind writes.
+ * When a scheduler's queue is full the call fails at once rather than piling up.
+ */
+public final class AllocationSchedulers {
+
+    private static final int IDLE_THREAD_SECONDS = 60;
+
+    private final Scheduler reads;
+    private final Scheduler writes;
+    private final Scheduler queries;
+
+    public AllocationSchedulers(int readThreads, int readQueue, int writeThreads, int writeQueue,
+                                int queryThreads, int queryQueue) {
+        this.reads = Schedulers.newBoundedElastic(readThreads, readQueue, "allocation-read",
+                IDLE_THREAD_SECONDS, true);
+        this.writes = Schedulers.newBoundedElastic(writeThreads, writeQueue, "allocation-write",
+                IDLE_THREAD_SECONDS, true);
+        this.queries = Schedulers.newBoundedElastic(queryThreads, queryQueue, "allocation-query",
+                IDLE_THREAD_SECONDS, true);
+    }
+
+    public <T> Mono<T> read(Callable<T> call) {
+        return offload(call, reads, "reads");
+    }
+
+    public <T> Mono<T> query(Callable<T> call) {
+        return offload(call, queries, "queries");
+    }
+
+    public <T> Mono<T> write(Callable<T> call) {
+        return offload(call, writes, "writes");
+    }
+
+    public void dispose() {
+        reads.dispose();
+        writes.dispose();
+        queries.dispose();
+    }
+
+    private static <T> Mono<T> offload(Callable<T> call, Scheduler scheduler, String kind) {
+        return Mono.fromCallable(call)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> new IllegalStateException(
+                        "Too many pending allocation " + kind + "; retry later.", e));
+    }
+}
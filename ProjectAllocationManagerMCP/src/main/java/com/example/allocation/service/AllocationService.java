@@ -1,89 +1,587 @@
 package com.example.allocation.service;
 
 import com.example.allocation.model.Allocation;
+import com.example.allocation.model.AllocationChange;
+import com.example.allocation.model.AllocationChanges;
+import com.example.allocation.model.AllocationRequest;
+import com.example.allocation.model.AuditReport;
+import com.example.allocation.model.AuditViolation;
 import com.example.allocation.model.Engineer;
+import com.example.allocation.model.Page;
 import com.example.allocation.model.Project;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.allocation.model.StateVersion;
+import com.example.allocation.model.UtilizationHeatmap;
+import com.example.allocation.persistence.AllocationJournal;
+import com.example.allocation.persistence.BinarySnapshot;
+import com.example.allocation.service.AllocationMetrics.Operation;
+import com.example.allocation.service.AllocationMetrics.Rejection;
+import io.micrometer.core.instrument.MeterRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+/**
+ * In-memory allocation store shared by all MCP tool calls.
+ * <p>
+ * Reads never lock: every index, including the {@link AllocationStore} selected by
+ * {@code allocation.store}, is safe for concurrent readers and lookups return copies. List reads
+ * come from an immutable state version published after each write or batch, so they never see a
+ * half-applied batch, and recent versions stay readable for time travel. Writes are
+ * serialized per engineer through a fixed set of striped locks, so the capacity check and the
+ * index update for one engineer happen atomically while writes for engineers on other stripes
+ * run in parallel. Engineers and projects are only written while loading.
+ * <p>
+ * Allocation writes are made durable in an {@link AllocationJournal} under {@code dataFolder}
+ * before they become visible, and survive restarts.
+ * <p>
+ * Business methods are timed and rejections counted in the context's {@link MeterRegistry}, see
+ * {@link AllocationMetrics}.
+ */
 @Service
 public class AllocationService {
 
+    private static final Logger log = LoggerFactory.getLogger(AllocationService.class);
+
+    private static final int WRITE_LOCK_STRIPES = 64;
+    private static final int SNAPSHOT_INTERVAL = 10_000;
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_PAGE_SCAN = 10_000;
+    private static final int DEFAULT_MATCH_COUNT = 10;
+    private static final int DEFAULT_HEATMAP_WEEKS = 26;
+    private static final int MAX_HEATMAP_WEEKS = 104;
+    private static final int DEFAULT_AUDIT_VIOLATIONS = 100;
+    private static final int CHANGE_FEED_CAPACITY = 1 << 16;
+    private static final int DEFAULT_CHANGE_COUNT = 100;
+    private static final int MAX_CHANGE_COUNT = 1000;
+    private static final int LOGGED_STARTUP_WARNINGS = 20;
+
     private final List<Engineer> engineers = new ArrayList<>();
     private final List<Project> projects = new ArrayList<>();
-    private final List<Allocation> allocations = new ArrayList<>();
     private final String dataFolder;
+    private final boolean auditOnStartup;
+
+    // Id-keyed indexes; every lookup used by the business methods goes through these
+    private final Map<String, Engineer> engineersById = new ConcurrentHashMap<>();
+    private final Map<String, Project> projectsById = new ConcurrentHashMap<>();
+    private final SkillIndex skillIndex = new SkillIndex();
+
+    // Allocations live in a pluggable store that keeps its own id, engineer and project indexes
+    private final AllocationStore allocationStore;
+
+    // Load over time per engineer, used for the capacity check on every write. A timeline is only
+    // touched while holding its engineer's write lock.
+    private final Map<String, EngineerTimeline> timelinesByEngineerId = new ConcurrentHashMap<>();
+
+    // Percentage-days per week, maintained on every allocation write for heatmaps and staffing curves
+    private final Map<String, WeeklyLoad> weeklyLoadByEngineerId = new ConcurrentHashMap<>();
+    private final Map<String, WeeklyLoad> weeklyLoadByProjectId = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] writeLocks = new ReentrantLock[WRITE_LOCK_STRIPES];
+
+    private AllocationJournal journal;
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "allocation-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final AllocationIdGenerator idGenerator;
+    private final ChangeFeed changeFeed = new ChangeFeed(CHANGE_FEED_CAPACITY);
+
+    // Immutable published states for consistent, lock-free list reads; see VersionedAllocations.
+    // Replaced, under every write lock, when the store compacts
+    private volatile VersionedAllocations<?> versions;
+    private final AtomicInteger duplicateSeedIds = new AtomicInteger();
+    private final AllocationMetrics metrics;
 
     public AllocationService() {
-        this.dataFolder = "data";
+        this("data");
     }
 
     public AllocationService(String dataFolder) {
+        this(dataFolder, "indexed");
+    }
+
+    public AllocationService(String dataFolder, String storeType) {
+        this(dataFolder, storeType, false, new TimeOrderedIdGenerator());
+    }
+
+    // An AllocationIdGenerator bean in the context replaces the default time-ordered ids
+    @Autowired
+    public AllocationService(
+            @Value("${allocation.data-folder:data}") String dataFolder,
+            @Value("${allocation.store:indexed}") String storeType,
+            @Value("${allocation.audit-on-startup:true}") boolean auditOnStartup,
+            @Value("${allocation.metrics.enabled:true}") boolean metricsEnabled,
+            ObjectProvider<AllocationIdGenerator> idGenerator,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this(dataFolder, storeType, auditOnStartup, idGenerator.getIfAvailable(TimeOrderedIdGenerator::new),
+                metricsEnabled ? meterRegistry.getIfAvailable() : null);
+    }
+
+    public AllocationService(String dataFolder, String storeType, boolean auditOnStartup,
+                             AllocationIdGenerator idGenerator) {
+        this(dataFolder, storeType, auditOnStartup, idGenerator, null);
+    }
+
+    /**
+     * @param storeType      {@code indexed} (hash maps of records) or {@code columnar} (primitive
+     *                       columns, for very large allocation histories)
+     * @param auditOnStartup whether {@link #loadData()} audits the loaded allocations and logs
+     *                       any violations
+     * @param idGenerator    source of ids for new allocations
+     * @param meterRegistry  where service metrics are recorded; {@code null} records none
+     */
+    public AllocationService(String dataFolder, String storeType, boolean auditOnStartup,
+                             AllocationIdGenerator idGenerator, MeterRegistry meterRegistry) {
         this.dataFolder = dataFolder != null ? dataFolder : "data";
+        this.allocationStore = AllocationStore.create(storeType);
+        this.versions = allocationStore.versions();
+        this.auditOnStartup = auditOnStartup;
+        this.idGenerator = idGenerator;
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
+        this.metrics = meterRegistry != null ? new AllocationMetrics(meterRegistry) : AllocationMetrics.DISABLED;
+        metrics.datasetSize("engineers", engineers::size);
+        metrics.datasetSize("projects", projects::size);
+        metrics.datasetSize("allocations", allocationStore::size);
+        metrics.stateVersion(() -> versions.current().number());
     }
 
     // Result record for allocation operations
     public record AllocationResult(boolean success, String message, Allocation allocation) {
     }
 
+    // Result record for batch allocation; conflicts lists every failed request when nothing was created
+    public record BatchAllocationResult(boolean success, String message, List<Allocation> allocations,
+                                        List<String> conflicts) {
+    }
+
+    // Search hit: the engineer's highest load in the requested window and the capacity left at that point
+    public record EngineerMatch(Engineer engineer, int peakLoad, int availablePercentage) {
+    }
+
     // --- CRUD Methods ---
 
     public List<Engineer> getEngineers() {
-        return engineers;
+        return Collections.unmodifiableList(engineers);
     }
 
     public List<Project> getProjects() {
-        return projects;
+        return Collections.unmodifiableList(projects);
     }
 
     public List<Allocation> getAllocations() {
-        return allocations;
+        return versions.current().all();
     }
 
     public Engineer getEngineerById(String id) {
-        return engineers.stream()
-                .filter(e -> e.id().equals(id))
-                .findFirst()
-                .orElse(null);
+        return id == null ? null : engineersById.get(id);
     }
 
     public Project getProjectById(String id) {
-        return projects.stream()
-                .filter(p -> p.id().equals(id))
-                .findFirst()
-                .orElse(null);
+        return id == null ? null : projectsById.get(id);
     }
 
     public Allocation getAllocationById(String id) {
-        return allocations.stream()
-                .filter(a -> a.id().equals(id))
-                .findFirst()
-                .orElse(null);
+        return allocationStore.get(id);
     }
 
     public List<Allocation> getAllocationsByEngineerId(String engineerId) {
-        return allocations.stream()
-                .filter(a -> a.engineerId().equals(engineerId))
-                .collect(Collectors.toList());
+        return versions.current().byEngineer(engineerId);
     }
 
     public List<Allocation> getAllocationsByProjectId(String projectId) {
-        return allocations.stream()
-                .filter(a -> a.projectId().equals(projectId))
-                .collect(Collectors.toList());
+        return versions.current().byProject(projectId);
+    }
+
+    /**
+     * Recently published state versions, newest first; any of them can be passed to
+     * {@link #listAllocations} while it is retained.
+     */
+    public List<StateVersion> getStateVersions(Integer limit) {
+        int count = limit == null || limit < 1 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        return versions.recent(count).stream()
+                .map(v -> new StateVersion(v.number(), v.publishedAt(), v.size()))
+                .toList();
+    }
+
+    // --- Paged Queries ---
+    // Cursors are opaque to clients: a list position for engineers/projects; for allocations the
+    // state version and the last returned id, so every page comes from the same version
+
+    public Page<Engineer> listEngineers(String role, String skill, String cursor, Integer limit) {
+        String roleFilter = normalizeFilter(role);
+        // Engineers are indexed in list order, so the skill index's ordinals are list positions
+        BitSet withSkill = normalizeFilter(skill) == null ? null : skillIndex.matching(List.of(skill));
+        return metrics.timed(Operation.LIST_ENGINEERS, () -> pageByPosition(engineers, withSkill, e ->
+                        roleFilter == null || (e.role() != null
+                                && e.role().toLowerCase(Locale.ROOT).contains(roleFilter)),
+                cursor, limit));
+    }
+
+    public Page<Project> listProjects(String status, String cursor, Integer limit) {
+        return metrics.timed(Operation.LIST_PROJECTS, () -> projectPage(status, cursor, limit));
+    }
+
+    private Page<Project> projectPage(String status, String cursor, Integer limit) {
+        String statusFilter = normalizeFilter(status);
+        return pageByPosition(projects, null, p ->
+                        statusFilter == null || statusFilter.equalsIgnoreCase(p.status()),
+                cursor, limit);
+    }
+
+    public Page<Allocation> listAllocations(String engineerId, String projectId, String from, String to,
+                                            String cursor, Integer limit) {
+        return listAllocations(engineerId, projectId, from, to, cursor, limit, null);
+    }
+
+    /**
+     * Allocations ordered by id, optionally restricted to an engineer, a project and/or those
+     * overlapping the {@code [from, to)} date window. Reads the given state version (see
+     * {@link #getStateVersions}), or the current one; later pages stay on the first page's version
+     * while it is retained.
+     */
+    public Page<Allocation> listAllocations(String engineerId, String projectId, String from, String to,
+                                            String cursor, Integer limit, Long version) {
+        return metrics.timed(Operation.LIST_ALLOCATIONS,
+                () -> allocationPage(engineerId, projectId, from, to, cursor, limit, version));
+    }
+
+    private Page<Allocation> allocationPage(String engineerId, String projectId, String from, String to,
+                                            String cursor, Integer limit, Long version) {
+        LocalDateTime windowStart = parseFilterDate(from, "from");
+        LocalDateTime windowEnd = parseFilterDate(to, "to");
+
+        String decoded = decodeCursor(cursor);
+        String afterId = null;
+        Long pinned = version;
+        if (decoded != null) {
+            int separator = decoded.indexOf(':');
+            try {
+                pinned = separator < 0 ? version : Long.valueOf(decoded.substring(0, separator));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("Invalid cursor: '%s'.", cursor));
+            }
+            afterId = decoded.substring(separator + 1);
+        }
+        VersionedAllocations<?>.Version state = pinned == null ? versions.current() : versions.at(pinned);
+        if (state == null) {
+            if (version != null && decoded == null) {
+                throw new IllegalArgumentException(String.format("State version %d is no longer retained.", version));
+            }
+            state = versions.current(); // a cursor outlived its version; continue on the current one
+        }
+
+        // Each scope is id-ordered in the version, so a page starts with a descent to afterId and
+        // reads only as far as it needs
+        boolean byEngineer = engineerId != null && !engineerId.isBlank();
+        boolean byProject = projectId != null && !projectId.isBlank();
+        Iterator<Allocation> candidates = byEngineer ? state.byEngineerAfter(engineerId, afterId)
+                : byProject ? state.byProjectAfter(projectId, afterId)
+                : state.allAfter(afterId);
+
+        int pageSize = pageSize(limit);
+        List<Allocation> items = new ArrayList<>(pageSize);
+        String resumeAfter = null;
+        String lastScanned = null;
+        int scanned = 0;
+        while (candidates.hasNext()) {
+            if (scanned == MAX_PAGE_SCAN) {
+                // The filters skipped a long run; the client continues from here with a short page
+                resumeAfter = lastScanned;
+                break;
+            }
+            Allocation a = candidates.next();
+            scanned++;
+            boolean matches = (!byEngineer || !byProject || a.projectId().equals(projectId))
+                    && (windowStart == null && windowEnd == null || datesOverlap(
+                    windowStart != null ? windowStart : LocalDateTime.MIN, windowEnd,
+                    a.startDate(), a.endDate()));
+            if (matches && items.size() == pageSize) {
+                resumeAfter = lastScanned;
+                break;
+            }
+            if (matches) {
+                items.add(a);
+            }
+            lastScanned = a.id();
+        }
+        return new Page<>(items, resumeAfter != null ? encodeCursor(state.number() + ":" + resumeAfter) : null);
+    }
+
+    // Visits the positions set in candidates, or every position if it is null, up to MAX_PAGE_SCAN of them
+    private static <T> Page<T> pageByPosition(List<T> source, BitSet candidates, Predicate<T> filter,
+                                              String cursor, Integer limit) {
+        String decoded = decodeCursor(cursor);
+        int size = source.size();
+        int position;
+        try {
+            position = decoded == null ? 0 : Integer.parseInt(decoded);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid cursor: '%s'.", cursor));
+        }
+        // Cursors only ever point inside the list, which never shrinks
+        if (position < 0 || position > size) {
+            throw new IllegalArgumentException(String.format("Invalid cursor: '%s'.", cursor));
+        }
+
+        int pageSize = pageSize(limit);
+        List<T> items = new ArrayList<>(pageSize);
+        int scanned = 0;
+        position = nextCandidate(candidates, position, size);
+        // A filter that skips a long run ends the page early; the client continues from the cursor
+        while (position < size && items.size() < pageSize && scanned < MAX_PAGE_SCAN) {
+            T item = source.get(position);
+            scanned++;
+            if (filter.test(item)) {
+                items.add(item);
+            }
+            position = nextCandidate(candidates, position + 1, size);
+        }
+        return new Page<>(items, position < size ? encodeCursor(Integer.toString(position)) : null);
+    }
+
+    private static int nextCandidate(BitSet candidates, int position, int size) {
+        if (candidates == null) {
+            return position;
+        }
+        int next = candidates.nextSetBit(position);
+        return next < 0 ? size : Math.min(next, size);
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Invalid cursor: '%s'.", cursor));
+        }
+    }
+
+    private static String normalizeFilter(String filter) {
+        return filter == null || filter.isBlank() ? null : filter.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static LocalDateTime parseFilterDate(String date, String name) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim(), DateTimeFormatter.ISO_LOCAL_DATE).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("Invalid %s date format: '%s'.", name, date));
+        }
+    }
+
+    // --- Search ---
+
+    /**
+     * Engineers that have every one of {@code skills} and whose peak load in
+     * {@code [startDate, endDate)} is below {@code maxLoad}, least loaded first (ties by id).
+     * A missing end date means an open-ended window.
+     */
+    public List<EngineerMatch> findAvailableEngineers(List<String> skills, String startDate, String endDate,
+                                                      Integer maxLoad, Integer limit) {
+        return metrics.timed(Operation.FIND_AVAILABLE_ENGINEERS,
+                () -> searchAvailableEngineers(skills, startDate, endDate, maxLoad, limit));
+    }
+
+    private List<EngineerMatch> searchAvailableEngineers(List<String> skills, String startDate, String endDate,
+                                                         Integer maxLoad, Integer limit) {
+        LocalDateTime windowStart = parseFilterDate(startDate, "start");
+        if (windowStart == null) {
+            throw new IllegalArgumentException("Start date is required.");
+        }
+        LocalDateTime windowEnd = parseFilterDate(endDate, "end");
+        if (windowEnd != null && !windowEnd.isAfter(windowStart)) {
+            throw new IllegalArgumentException("End date must be after start date.");
+        }
+        int loadCeiling = maxLoad == null ? 100 : maxLoad;
+        int count = limit == null || limit < 1 ? DEFAULT_MATCH_COUNT : Math.min(limit, MAX_PAGE_SIZE);
+
+        // Peaks come from the published version, so a search takes no write lock and neither waits
+        // for writers nor holds them up; it sees the allocations as of one version
+        VersionedAllocations<?>.Version state = versions.current();
+        BitSet candidates = skillIndex.matching(skills);
+
+        // Bounded max-heap: the worst of the best matches so far sits on top
+        Comparator<EngineerMatch> ranking = Comparator.comparingInt(EngineerMatch::peakLoad)
+                .thenComparing(m -> m.engineer().id());
+        PriorityQueue<EngineerMatch> best = new PriorityQueue<>(count + 1, ranking.reversed());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Engineer engineer = skillIndex.engineer(i);
+            int peak = EngineerTimeline.peakLoad(state.byEngineer(engineer.id()), windowStart, windowEnd);
+            if (peak >= loadCeiling) {
+                continue;
+            }
+            best.add(new EngineerMatch(engineer, peak, Math.max(0, 100 - peak)));
+            if (best.size() > count) {
+                best.poll();
+            }
+        }
+
+        List<EngineerMatch> result = new ArrayList<>(best);
+        result.sort(ranking);
+        return result;
+    }
+
+    // --- Utilization ---
+
+    /**
+     * Average weekly utilization of a page of engineers, optionally only those having every one of
+     * {@code skills}. Starts at the week containing {@code from} (default: this week).
+     */
+    public UtilizationHeatmap getCapacityHeatmap(List<String> skills, String from, Integer weeks,
+                                                 String cursor, Integer limit) {
+        return metrics.timed(Operation.CAPACITY_HEATMAP, () -> {
+            Page<Engineer> page = pageByPosition(engineers, skillIndex.matching(skills), e -> true, cursor, limit);
+            return heatmap(page, Engineer::id, Engineer::name, weeklyLoadByEngineerId, from, weeks);
+        });
+    }
+
+    /**
+     * Weekly staffing of a page of projects, optionally filtered by status: the summed allocation
+     * percentage averaged over each week, so 250 means two and a half full-time engineers.
+     */
+    public UtilizationHeatmap getProjectStaffing(String status, String from, Integer weeks,
+                                                 String cursor, Integer limit) {
+        return metrics.timed(Operation.PROJECT_STAFFING, () -> heatmap(projectPage(status, cursor, limit),
+                Project::id, Project::name, weeklyLoadByProjectId, from, weeks));
+    }
+
+    private static <T> UtilizationHeatmap heatmap(Page<T> page, Function<T, String> id, Function<T, String> name,
+                                                  Map<String, WeeklyLoad> loads, String from, Integer weeks) {
+        LocalDateTime start = parseFilterDate(from, "from");
+        int firstWeek = WeeklyLoad.weekOf(start != null ? start.toLocalDate() : LocalDate.now());
+        int count = weeks == null || weeks < 1 ? DEFAULT_HEATMAP_WEEKS : Math.min(weeks, MAX_HEATMAP_WEEKS);
+
+        List<String> weekStarts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            weekStarts.add(WeeklyLoad.mondayOf(firstWeek + i).toString());
+        }
+        List<UtilizationHeatmap.Row> rows = new ArrayList<>(page.items().size());
+        for (T item : page.items()) {
+            WeeklyLoad load = loads.get(id.apply(item));
+            int[] utilization = load == null ? new int[count] : load.read(firstWeek, count);
+            for (int i = 0; i < count; i++) {
+                utilization[i] = Math.round(utilization[i] / (float) WeeklyLoad.DAYS_PER_WEEK);
+            }
+            rows.add(new UtilizationHeatmap.Row(id.apply(item), name.apply(item), utilization));
+        }
+        return new UtilizationHeatmap(weekStarts, rows, page.nextCursor());
+    }
+
+    // --- Audit ---
+
+    /**
+     * Checks every allocation of the current state version against the rules enforced on new ones,
+     * in parallel across engineers on the common fork-join pool. Returns at most {@code limit} violations (default 100).
+     */
+    public AuditReport auditAllocations(Integer limit) {
+        return metrics.timed(Operation.AUDIT, () -> audit(limit));
+    }
+
+    private AuditReport audit(Integer limit) {
+        long started = System.nanoTime();
+        VersionedAllocations<?>.Version state = versions.current();
+        List<String> engineerIds = state.engineerIds();
+        AllocationAuditor auditor = new AllocationAuditor(
+                state::byEngineer, engineersById::containsKey, projectsById::containsKey);
+        AllocationAuditor.Result result = auditor.audit(ForkJoinPool.commonPool(), engineerIds);
+
+        List<AuditViolation> violations = result.violations();
+        int max = limit == null || limit < 0 ? DEFAULT_AUDIT_VIOLATIONS : limit;
+        return new AuditReport(engineerIds.size(), result.allocationsChecked(), violations.size(),
+                violations.size() > max ? List.copyOf(violations.subList(0, max)) : violations,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void finishLoading(long started) {
+        metrics.loaded(System.nanoTime() - started);
+        versions.reset(allocationStore.all());
+        if (duplicateSeedIds.get() > 0) {
+            log.warn("Rejected {} seed allocations with a missing or duplicate id", duplicateSeedIds.get());
+        }
+        if (auditOnStartup) {
+            auditLoadedData();
+        }
+    }
+
+    private void auditLoadedData() {
+        AuditReport report = auditAllocations(LOGGED_STARTUP_WARNINGS);
+        if (report.violationCount() == 0) {
+            log.info("Audited {} allocations in {} ms: no violations",
+                    report.allocationsChecked(), report.durationMillis());
+            return;
+        }
+        log.warn("Audited {} allocations in {} ms: {} violations", report.allocationsChecked(),
+                report.durationMillis(), report.violationCount());
+        for (AuditViolation violation : report.violations()) {
+            log.warn("  {} {} {}: {}", violation.type(), violation.engineerId(), violation.allocationIds(),
+                    violation.message());
+        }
     }
 
     // --- Business Logic Methods ---
@@ -95,116 +593,325 @@ public class AllocationService {
             String startDate,
             String endDate) {
 
+        // The timed call captures its arguments in a lambda, so it is only built when something is recorded
+        if (!metrics.enabled()) {
+            return allocate(engineerId, projectId, allocationPercentage, startDate, endDate);
+        }
+        return metrics.timed(Operation.ALLOCATE_ENGINEER,
+                () -> allocate(engineerId, projectId, allocationPercentage, startDate, endDate),
+                AllocationResult::success);
+    }
+
+    private AllocationResult allocate(
+            String engineerId,
+            String projectId,
+            int allocationPercentage,
+            String startDate,
+            String endDate) {
+
+        NewAllocation request = validateNewAllocation(engineerId, projectId, allocationPercentage, startDate, endDate);
+        if (request.error() != null) {
+            return new AllocationResult(false, request.error(), null);
+        }
+
+        ReentrantLock lock = writeLockFor(engineerId);
+        lock.lock();
+        try {
+            return commitNewAllocation(request);
+        } finally {
+            lock.unlock();
+            scheduleSnapshotIfDue();
+        }
+    }
+
+    /**
+     * Allocates a whole batch or nothing.
+     * <p>
+     * Every request is validated against the current state plus the requests before it in the
+     * batch. Requests are grouped by engineer, and all of the engineers' locks are held while the
+     * batch is checked and committed. If any request fails, nothing is stored and every failure
+     * is reported. Otherwise all allocations are written to the journal as a single record.
+     */
+    public BatchAllocationResult allocateEngineers(List<AllocationRequest> requests) {
+        if (!metrics.enabled()) {
+            return allocateBatch(requests);
+        }
+        return metrics.timed(Operation.ALLOCATE_BATCH, () -> allocateBatch(requests), BatchAllocationResult::success);
+    }
+
+    private BatchAllocationResult allocateBatch(List<AllocationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            metrics.rejected(Rejection.INVALID_REQUEST);
+            return new BatchAllocationResult(false, "No allocations requested.", List.of(), List.of());
+        }
+
+        // Validations 1-4 need no lock
+        List<String> conflicts = new ArrayList<>();
+        Map<String, List<NewAllocation>> requestsByEngineer = new LinkedHashMap<>();
+        Map<NewAllocation, Integer> requestNumbers = new IdentityHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AllocationRequest r = requests.get(i);
+            NewAllocation request = r == null
+                    ? invalid(Rejection.INVALID_REQUEST, "Allocation request is empty.")
+                    : validateNewAllocation(r.engineerId(), r.projectId(), r.allocationPercentage(),
+                    r.startDate(), r.endDate());
+            if (request.error() != null) {
+                conflicts.add("Request " + (i + 1) + ": " + request.error());
+            } else {
+                requestsByEngineer.computeIfAbsent(request.engineer().id(), k -> new ArrayList<>()).add(request);
+                requestNumbers.put(request, i + 1);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            return batchFailure(conflicts);
+        }
+
+        // Stripes are locked in ascending order, like writeSnapshot, so batches cannot deadlock
+        int[] stripes = requestsByEngineer.keySet().stream()
+                .mapToInt(AllocationService::stripeFor)
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) {
+            writeLocks[stripe].lock();
+        }
+        try {
+            // Validations 5-6 per engineer, with earlier batch entries added to the timeline so
+            // later ones are checked against them
+            Map<Integer, String> conflictsByRequest = new TreeMap<>();
+            List<Allocation> created = new ArrayList<>(requests.size());
+            for (List<NewAllocation> engineerRequests : requestsByEngineer.values()) {
+                List<Allocation> accepted = new ArrayList<>();
+                for (NewAllocation request : engineerRequests) {
+                    String conflict = findConflict(request);
+                    if (conflict == null) {
+                        conflict = findBatchDuplicate(request, accepted);
+                    }
+                    if (conflict != null) {
+                        conflictsByRequest.put(requestNumbers.get(request), conflict);
+                        continue;
+                    }
+                    Allocation allocation = request.toAllocation(newAllocationId());
+                    accepted.add(allocation);
+                    timelinesByEngineerId.computeIfAbsent(allocation.engineerId(), k -> new EngineerTimeline())
+                            .add(allocation.startDate(), allocation.endDate(), allocation.allocationPercentage());
+                }
+                created.addAll(accepted);
+            }
+
+            // The tentative timeline entries are re-added by indexAllocation on commit
+            for (Allocation allocation : created) {
+                timelinesByEngineerId.get(allocation.engineerId())
+                        .remove(allocation.startDate(), allocation.endDate(), allocation.allocationPercentage());
+            }
+            if (!conflictsByRequest.isEmpty()) {
+                conflictsByRequest.forEach((number, conflict) ->
+                        conflicts.add("Request " + number + ": " + conflict));
+                return batchFailure(conflicts);
+            }
+
+            String persistError = persistAll(created);
+            if (persistError != null) {
+                return new BatchAllocationResult(false, persistError, List.of(), List.of());
+            }
+            created.forEach(this::indexAllocation);
+            versions.publish(created);
+            created.forEach(allocation -> publishChange(allocation, null));
+            return new BatchAllocationResult(true,
+                    "Successfully created " + created.size() + " allocations.", created, List.of());
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                writeLocks[stripes[i]].unlock();
+            }
+            scheduleSnapshotIfDue();
+        }
+    }
+
+    private static BatchAllocationResult batchFailure(List<String> conflicts) {
+        return new BatchAllocationResult(false,
+                "No allocations were created; " + conflicts.size() + " request(s) failed validation.",
+                List.of(), conflicts);
+    }
+
+    // Request-level validations that do not depend on existing allocations
+    private record NewAllocation(Engineer engineer, Project project, int percentage,
+                                 LocalDateTime startDate, LocalDateTime endDate, String error) {
+
+        static NewAllocation invalid(String error) {
+            return new NewAllocation(null, null, 0, null, null, error);
+        }
+
+        Allocation toAllocation(String id) {
+            return new Allocation(id, engineer.id(), project.id(), percentage, startDate, endDate);
+        }
+    }
+
+    private NewAllocation invalid(Rejection reason, String error) {
+        metrics.rejected(reason);
+        return NewAllocation.invalid(error);
+    }
+
+    private NewAllocation validateNewAllocation(
+            String engineerId,
+            String projectId,
+            int allocationPercentage,
+            String startDate,
+            String endDate) {
+
+        // Messages are plain concatenations built only on the failing branch; String.format and
+        // DateTimeFormatter dominated the garbage produced per call
+
         // Validation 1: Check if engineer exists
-        Engineer engineer = getEngineerById(engineerId);
+        Engineer engineer = engineerId == null ? null : getEngineerById(engineerId);
         if (engineer == null) {
-            return new AllocationResult(false,
-                    String.format("Engineer with ID '%s' not found.", engineerId), null);
+            return invalid(Rejection.NOT_FOUND, "Engineer with ID '" + engineerId + "' not found.");
         }
 
         // Validation 2: Check if project exists
-        Project project = getProjectById(projectId);
+        Project project = projectId == null ? null : getProjectById(projectId);
         if (project == null) {
-            return new AllocationResult(false,
-                    String.format("Project with ID '%s' not found.", projectId), null);
+            return invalid(Rejection.NOT_FOUND, "Project with ID '" + projectId + "' not found.");
         }
 
         // Validation 3: Validate allocation percentage (must be between 1 and 100)
         if (allocationPercentage < 1 || allocationPercentage > 100) {
-            return new AllocationResult(false,
-                    "Allocation percentage must be between 1 and 100.", null);
+            return invalid(Rejection.INVALID_REQUEST, "Allocation percentage must be between 1 and 100.");
         }
 
         // Validation 4: Validate and set dates
-        LocalDateTime parsedStartDate;
-        if (startDate == null || startDate.trim().isEmpty()) {
-            parsedStartDate = LocalDate.now().atStartOfDay();
+        LocalDate start;
+        if (startDate == null || startDate.isBlank()) {
+            start = LocalDate.now();
         } else {
-            try {
-                parsedStartDate = LocalDate.parse(startDate, DateTimeFormatter.ISO_LOCAL_DATE).atStartOfDay();
-            } catch (DateTimeParseException e) {
-                return new AllocationResult(false,
-                        String.format("Invalid start date format: '%s'.", startDate), null);
+            start = parseIsoDate(startDate);
+            if (start == null) {
+                return invalid(Rejection.INVALID_REQUEST, "Invalid start date format: '" + startDate + "'.");
             }
         }
 
-        LocalDateTime parsedEndDate = null;
-        if (endDate != null && !endDate.trim().isEmpty()) {
-            try {
-                parsedEndDate = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE).atStartOfDay();
-            } catch (DateTimeParseException e) {
-                return new AllocationResult(false,
-                        String.format("Invalid end date format: '%s'.", endDate), null);
+        LocalDate end = null;
+        if (endDate != null && !endDate.isBlank()) {
+            end = parseIsoDate(endDate);
+            if (end == null) {
+                return invalid(Rejection.INVALID_REQUEST, "Invalid end date format: '" + endDate + "'.");
             }
-
-            if (!parsedEndDate.isAfter(parsedStartDate)) {
-                return new AllocationResult(false,
-                        "End date must be after start date.", null);
+            if (!end.isAfter(start)) {
+                return invalid(Rejection.INVALID_REQUEST, "End date must be after start date.");
             }
         }
+        LocalDateTime parsedStartDate = start.atStartOfDay();
+        LocalDateTime parsedEndDate = end != null ? end.atStartOfDay() : null;
 
-        // Validation 5: Check for overlapping allocations and total percentage
-        List<Allocation> existingAllocations = getAllocationsByEngineerId(engineerId);
-        LocalDateTime finalParsedEndDate = parsedEndDate;
-        List<Allocation> overlappingAllocations = existingAllocations.stream()
-                .filter(a -> datesOverlap(parsedStartDate, finalParsedEndDate, a.startDate(), a.endDate()))
-                .toList();
+        return new NewAllocation(engineer, project, allocationPercentage, parsedStartDate, parsedEndDate, null);
+    }
 
-        if (!overlappingAllocations.isEmpty()) {
-            int totalAllocation = overlappingAllocations.stream()
-                    .mapToInt(Allocation::allocationPercentage)
-                    .sum() + allocationPercentage;
-
-            if (totalAllocation > 100) {
-                int currentAllocation = overlappingAllocations.stream()
-                        .mapToInt(Allocation::allocationPercentage)
-                        .sum();
-                return new AllocationResult(false,
-                        String.format("Engineer '%s' is over-allocated. " +
-                                        "Current allocation during this period: %d%%. " +
-                                        "Adding %d%% would result in %d%% total allocation.",
-                                engineer.name(), currentAllocation, allocationPercentage, totalAllocation),
-                        null);
-            }
+    // Runs the capacity and duplicate checks and stores the allocation; caller holds the engineer's lock
+    private AllocationResult commitNewAllocation(NewAllocation request) {
+        String conflict = findConflict(request);
+        if (conflict != null) {
+            return new AllocationResult(false, conflict, null);
+        }
+
+        // Create new allocation
+        Allocation newAllocation = request.toAllocation(newAllocationId());
+
+        String persistError = persist(newAllocation);
+        if (persistError != null) {
+            return new AllocationResult(false, persistError, null);
+        }
+        indexAllocation(newAllocation);
+        versions.publish(List.of(newAllocation));
+        publishChange(newAllocation, null);
+
+        Engineer engineer = request.engineer();
+        Project project = request.project();
+        String message = request.endDate() == null
+                ? "Successfully allocated " + request.percentage() + "% of " + engineer.name() + " to "
+                + project.name() + " starting from " + request.startDate().toLocalDate() + " (indefinite)."
+                : "Successfully allocated " + request.percentage() + "% of " + engineer.name() + " to "
+                + project.name() + " from " + request.startDate().toLocalDate()
+                + " to " + request.endDate().toLocalDate() + ".";
+
+        return new AllocationResult(true, message, newAllocation);
+    }
+
+    // Validations 5-6 against the stored allocations; returns the failure message, or null.
+    // Caller holds the engineer's lock.
+    private String findConflict(NewAllocation request) {
+        Engineer engineer = request.engineer();
+
+        // Validation 5: Check the peak load of the engineer during the period
+        int currentAllocation = peakLoad(engineer.id(), request.startDate(), request.endDate(), null);
+        int totalAllocation = currentAllocation + request.percentage();
+
+        if (totalAllocation > 100) {
+            metrics.rejected(Rejection.OVER_ALLOCATION);
+            return "Engineer '" + engineer.name() + "' is over-allocated. "
+                    + "Current allocation during this period: " + currentAllocation + "%. "
+                    + "Adding " + request.percentage() + "% would result in " + totalAllocation
+                    + "% total allocation.";
         }
 
         // Validation 6: Check if engineer is already allocated to the same project with
         // overlapping dates
-        Allocation duplicateAllocation = overlappingAllocations.stream()
-                .filter(a -> a.projectId().equals(projectId))
-                .findFirst()
-                .orElse(null);
+        Allocation duplicateAllocation = allocationStore.findOverlapping(
+                engineer.id(), request.project().id(), request.startDate(), request.endDate(), null);
 
         if (duplicateAllocation != null) {
-            String endDateStr = duplicateAllocation.endDate() != null
-                    ? duplicateAllocation.endDate().toLocalDate().toString()
+            metrics.rejected(Rejection.DUPLICATE);
+            Object endDateStr = duplicateAllocation.endDate() != null
+                    ? duplicateAllocation.endDate().toLocalDate()
                     : "indefinite";
-            return new AllocationResult(false,
-                    String.format("Engineer '%s' is already allocated to project '%s' from %s to %s.",
-                            engineer.name(), project.name(),
-                            duplicateAllocation.startDate().toLocalDate().toString(), endDateStr),
-                    null);
+            return "Engineer '" + engineer.name() + "' is already allocated to project '"
+                    + request.project().name() + "' from " + duplicateAllocation.startDate().toLocalDate()
+                    + " to " + endDateStr + ".";
         }
+        return null;
+    }
 
-        // Create new allocation
-        Allocation newAllocation = new Allocation(
-                "alloc-" + UUID.randomUUID().toString().substring(0, 8),
-                engineerId,
-                projectId,
-                allocationPercentage,
-                parsedStartDate,
-                parsedEndDate);
+    // Same-project overlap with an allocation accepted earlier in the same batch
+    private String findBatchDuplicate(NewAllocation request, List<Allocation> accepted) {
+        for (Allocation a : accepted) {
+            if (a.projectId().equals(request.project().id())
+                    && datesOverlap(request.startDate(), request.endDate(), a.startDate(), a.endDate())) {
+                metrics.rejected(Rejection.DUPLICATE);
+                Object endDateStr = a.endDate() != null ? a.endDate().toLocalDate() : "indefinite";
+                return "Engineer '" + request.engineer().name() + "' is already allocated to project '"
+                        + request.project().name() + "' from " + a.startDate().toLocalDate() + " to " + endDateStr
+                        + " earlier in this batch.";
+            }
+        }
+        return null;
+    }
 
-        allocations.add(newAllocation);
+    private String newAllocationId() {
+        return idGenerator.nextId();
+    }
 
-        String message = parsedEndDate == null
-                ? String.format("Successfully allocated %d%% of %s to %s starting from %s (indefinite).",
-                allocationPercentage, engineer.name(), project.name(), parsedStartDate.toLocalDate())
-                : String.format("Successfully allocated %d%% of %s to %s from %s to %s.",
-                allocationPercentage, engineer.name(), project.name(),
-                parsedStartDate.toLocalDate(), parsedEndDate.toLocalDate());
+    // Strict yyyy-MM-dd without DateTimeFormatter or exceptions; null if the text is not a valid date
+    static LocalDate parseIsoDate(String text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return null;
+        }
+        int year = parseDigits(text, 0, 4);
+        int month = parseDigits(text, 5, 7);
+        int day = parseDigits(text, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
 
-        return new AllocationResult(true, message, newAllocation);
+    private static int parseDigits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
     }
 
     public AllocationResult updateAllocation(
@@ -213,11 +920,47 @@ public class AllocationService {
             String startDate,
             String endDate) {
 
+        if (!metrics.enabled()) {
+            return update(allocationId, allocationPercentage, startDate, endDate);
+        }
+        return metrics.timed(Operation.UPDATE_ALLOCATION,
+                () -> update(allocationId, allocationPercentage, startDate, endDate),
+                AllocationResult::success);
+    }
+
+    private AllocationResult update(
+            String allocationId,
+            Integer allocationPercentage,
+            String startDate,
+            String endDate) {
+
+        Allocation existing = getAllocationById(allocationId);
+        if (existing == null) {
+            return rejected(Rejection.NOT_FOUND, "Allocation with ID '" + allocationId + "' not found.");
+        }
+
+        // An allocation never moves to another engineer, so its engineer's lock guards every write to it
+        ReentrantLock lock = writeLockFor(existing.engineerId());
+        lock.lock();
+        try {
+            return applyUpdate(allocationId, allocationPercentage, startDate, endDate);
+        } finally {
+            lock.unlock();
+            scheduleSnapshotIfDue();
+        }
+    }
+
+    // Caller holds the lock of the allocation's engineer
+    private AllocationResult applyUpdate(
+            String allocationId,
+            Integer allocationPercentage,
+            String startDate,
+            String endDate) {
+
         // Validation 1: Find the allocation
         Allocation allocation = getAllocationById(allocationId);
         if (allocation == null) {
-            return new AllocationResult(false,
-                    String.format("Allocation with ID '%s' not found.", allocationId), null);
+            return rejected(Rejection.NOT_FOUND, "Allocation with ID '" + allocationId + "' not found.");
         }
 
         // Get engineer and project details for validation and messaging
@@ -225,97 +968,70 @@ public class AllocationService {
         Project project = getProjectById(allocation.projectId());
 
         if (engineer == null || project == null) {
-            return new AllocationResult(false,
-                    "Associated engineer or project not found.", null);
+            return rejected(Rejection.NOT_FOUND,
+                    "Associated engineer or project not found.");
         }
 
         // Parse and validate new dates
         LocalDateTime parsedStartDate = allocation.startDate();
         LocalDateTime parsedEndDate = allocation.endDate();
 
-        if (startDate != null && !startDate.trim().isEmpty()) {
-            try {
-                parsedStartDate = LocalDate.parse(startDate, DateTimeFormatter.ISO_LOCAL_DATE).atStartOfDay();
-            } catch (DateTimeParseException e) {
-                return new AllocationResult(false,
-                        String.format("Invalid start date format: '%s'.", startDate), null);
+        if (startDate != null && !startDate.isBlank()) {
+            LocalDate start = parseIsoDate(startDate);
+            if (start == null) {
+                return rejected(Rejection.INVALID_REQUEST, "Invalid start date format: '" + startDate + "'.");
             }
+            parsedStartDate = start.atStartOfDay();
         }
 
-        if (endDate != null && !endDate.trim().isEmpty()) {
-            try {
-                parsedEndDate = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE).atStartOfDay();
-            } catch (DateTimeParseException e) {
-                return new AllocationResult(false,
-                        String.format("Invalid end date format: '%s'.", endDate), null);
+        if (endDate != null && !endDate.isBlank()) {
+            LocalDate end = parseIsoDate(endDate);
+            if (end == null) {
+                return rejected(Rejection.INVALID_REQUEST, "Invalid end date format: '" + endDate + "'.");
             }
+            parsedEndDate = end.atStartOfDay();
         }
 
         // Validate end date is after start date
         if (parsedEndDate != null && !parsedEndDate.isAfter(parsedStartDate)) {
-            return new AllocationResult(false,
-                    "End date must be after start date.", null);
+            return rejected(Rejection.INVALID_REQUEST,
+                    "End date must be after start date.");
         }
 
         // Validate allocation percentage if provided
         int newAllocationPercentage = allocation.allocationPercentage();
         if (allocationPercentage != null) {
             if (allocationPercentage < 1 || allocationPercentage > 100) {
-                return new AllocationResult(false,
-                        "Allocation percentage must be between 1 and 100.", null);
+                return rejected(Rejection.INVALID_REQUEST,
+                        "Allocation percentage must be between 1 and 100.");
             }
             newAllocationPercentage = allocationPercentage;
         }
 
-        // Check for overlapping allocations (excluding the current allocation being
+        // Check the peak load during the new period (excluding the current allocation being
         // updated)
-        List<Allocation> existingAllocations = getAllocationsByEngineerId(allocation.engineerId())
-                .stream()
-                .filter(a -> !a.id().equals(allocationId))
-                .toList();
+        int currentAllocation = peakLoad(allocation.engineerId(), parsedStartDate, parsedEndDate, allocation);
+        int totalAllocation = currentAllocation + newAllocationPercentage;
 
-        LocalDateTime finalParsedEndDate = parsedEndDate;
-        LocalDateTime finalParsedStartDate = parsedStartDate;
-        List<Allocation> overlappingAllocations = existingAllocations.stream()
-                .filter(a -> datesOverlap(finalParsedStartDate, finalParsedEndDate, a.startDate(), a.endDate()))
-                .toList();
-
-        if (!overlappingAllocations.isEmpty()) {
-            int totalAllocation = overlappingAllocations.stream()
-                    .mapToInt(Allocation::allocationPercentage)
-                    .sum() + newAllocationPercentage;
-
-            if (totalAllocation > 100) {
-                int currentAllocation = overlappingAllocations.stream()
-                        .mapToInt(Allocation::allocationPercentage)
-                        .sum();
-                return new AllocationResult(false,
-                        String.format("Engineer '%s' would be over-allocated. " +
-                                        "Current allocation during this period: %d%%. " +
-                                        "Adding %d%% would result in %d%% total allocation.",
-                                engineer.name(), currentAllocation, newAllocationPercentage, totalAllocation),
-                        null);
-            }
+        if (totalAllocation > 100) {
+            return rejected(Rejection.OVER_ALLOCATION, "Engineer '" + engineer.name() + "' would be over-allocated. "
+                    + "Current allocation during this period: " + currentAllocation + "%. "
+                    + "Adding " + newAllocationPercentage + "% would result in " + totalAllocation
+                    + "% total allocation.");
         }
 
         // Check for duplicate allocation to the same project (excluding current
         // allocation)
-        Allocation duplicateAllocation = overlappingAllocations.stream()
-                .filter(a -> a.projectId().equals(allocation.projectId()))
-                .findFirst()
-                .orElse(null);
+        Allocation duplicateAllocation = allocationStore.findOverlapping(
+                allocation.engineerId(), allocation.projectId(), parsedStartDate, parsedEndDate, allocationId);
 
         if (duplicateAllocation != null) {
-            String endDateStr = duplicateAllocation.endDate() != null
-                    ? duplicateAllocation.endDate().toLocalDate().toString()
+            Object endDateStr = duplicateAllocation.endDate() != null
+                    ? duplicateAllocation.endDate().toLocalDate()
                     : "indefinite";
-            return new AllocationResult(false,
-                    String.format("Engineer '%s' is already allocated to project '%s' " +
-                                    "from %s to %s in allocation '%s'.",
-                            engineer.name(), project.name(),
-                            duplicateAllocation.startDate().toLocalDate().toString(), endDateStr,
-                            duplicateAllocation.id()),
-                    null);
+            return rejected(Rejection.DUPLICATE, "Engineer '" + engineer.name() + "' is already allocated to project '"
+                    + project.name() + "' from " + duplicateAllocation.startDate().toLocalDate() + " to " + endDateStr
+                    + " in allocation '" + duplicateAllocation.id() + "'.");
         }
 
         // Update the allocation by creating a new record and replacing it
@@ -328,22 +1044,49 @@ public class AllocationService {
                 parsedEndDate);
 
         // Replace the old allocation with the updated one
-        allocations.remove(allocation);
-        allocations.add(updatedAllocation);
+        String persistError = persist(updatedAllocation);
+        if (persistError != null) {
+            return new AllocationResult(false, persistError, null);
+        }
+        indexAllocation(updatedAllocation);
+        versions.publish(List.of(updatedAllocation));
+        publishChange(updatedAllocation, allocation);
 
         String message = parsedEndDate == null
-                ? String.format(
-                "Successfully updated allocation. %s is now %d%% allocated to %s starting from %s (indefinite).",
-                engineer.name(), newAllocationPercentage, project.name(), parsedStartDate.toLocalDate())
-                : String.format("Successfully updated allocation. %s is now %d%% allocated to %s from %s to %s.",
-                engineer.name(), newAllocationPercentage, project.name(),
-                parsedStartDate.toLocalDate(), parsedEndDate.toLocalDate());
+                ? "Successfully updated allocation. " + engineer.name() + " is now " + newAllocationPercentage
+                + "% allocated to " + project.name() + " starting from " + parsedStartDate.toLocalDate()
+                + " (indefinite)."
+                : "Successfully updated allocation. " + engineer.name() + " is now " + newAllocationPercentage
+                + "% allocated to " + project.name() + " from " + parsedStartDate.toLocalDate()
+                + " to " + parsedEndDate.toLocalDate() + ".";
 
         return new AllocationResult(true, message, updatedAllocation);
     }
 
+    private AllocationResult rejected(Rejection reason, String message) {
+        metrics.rejected(reason);
+        return new AllocationResult(false, message, null);
+    }
+
+    // Peak allocated percentage of an engineer in [start, end), optionally ignoring one allocation
+    private int peakLoad(String engineerId, LocalDateTime start, LocalDateTime end, Allocation excluded) {
+        EngineerTimeline timeline = timelinesByEngineerId.get(engineerId);
+        if (timeline == null) {
+            return 0;
+        }
+        if (excluded == null) {
+            return timeline.peakLoad(start, end);
+        }
+        timeline.remove(excluded.startDate(), excluded.endDate(), excluded.allocationPercentage());
+        try {
+            return timeline.peakLoad(start, end);
+        } finally {
+            timeline.add(excluded.startDate(), excluded.endDate(), excluded.allocationPercentage());
+        }
+    }
+
     // Helper method to check if two date ranges overlap
-    private boolean datesOverlap(LocalDateTime start1, LocalDateTime end1, LocalDateTime start2, LocalDateTime end2) {
+    static boolean datesOverlap(LocalDateTime start1, LocalDateTime end1, LocalDateTime start2, LocalDateTime end2) {
 
         // Case 1: Both have end dates
         if (end1 != null && end2 != null) {
@@ -363,43 +1106,271 @@ public class AllocationService {
         }
     }
 
+    // --- Change Feed ---
+    // Only writes made by this process are published; loading and journal replay are not
+
+    /**
+     * Changes published after {@code sinceSequence} (0 or {@code null} for the oldest retained),
+     * at most {@code limit} of them.
+     */
+    public AllocationChanges getChangesSince(Long sinceSequence, Integer limit) {
+        int count = limit == null || limit < 1 ? DEFAULT_CHANGE_COUNT : Math.min(limit, MAX_CHANGE_COUNT);
+        long after = sinceSequence == null ? 0 : sinceSequence;
+        return metrics.timed(Operation.CHANGES, () -> changeFeed.since(after, count));
+    }
+
+    public long getLatestChangeSequence() {
+        return changeFeed.newestSequence();
+    }
+
+    // Publishes the allocation event followed by the engineer's capacity change; caller holds the
+    // engineer's lock, so the reported peak load is the one right after this write
+    private void publishChange(Allocation allocation, Allocation previous) {
+        Instant now = Instant.now();
+        String engineerId = allocation.engineerId();
+        changeFeed.publish(new AllocationChange(changeFeed.nextSequence(),
+                previous == null ? AllocationChange.Type.ALLOCATION_CREATED : AllocationChange.Type.ALLOCATION_UPDATED,
+                now, engineerId, allocation, previous, null, null, null));
+
+        LocalDateTime from = allocation.startDate();
+        LocalDateTime to = allocation.endDate();
+        if (previous != null) {
+            from = previous.startDate().isBefore(from) ? previous.startDate() : from;
+            to = to == null || previous.endDate() == null ? null
+                    : previous.endDate().isAfter(to) ? previous.endDate() : to;
+        }
+        changeFeed.publish(new AllocationChange(changeFeed.nextSequence(), AllocationChange.Type.CAPACITY_CHANGED,
+                now, engineerId, null, null, from, to, peakLoad(engineerId, from, to, null)));
+    }
+
+    // --- Persistence ---
+
+    // Logs the write ahead of applying it; returns an error message if it could not be made durable
+    private String persist(Allocation allocation) {
+        try {
+            journal.append(allocation);
+            return null;
+        } catch (IOException e) {
+            log.error("Failed to persist allocation {}", allocation.id(), e);
+            metrics.rejected(Rejection.PERSISTENCE_FAILURE);
+            return "Failed to persist allocation: " + e.getMessage();
+        }
+    }
+
+    // Logs a group of writes as one journal record, so they are recovered together or not at all
+    private String persistAll(List<Allocation> allocations) {
+        try {
+            journal.appendAll(allocations);
+            return null;
+        } catch (IOException e) {
+            log.error("Failed to persist {} allocations", allocations.size(), e);
+            metrics.rejected(Rejection.PERSISTENCE_FAILURE);
+            return "Failed to persist allocations: " + e.getMessage();
+        }
+    }
+
+    private void scheduleSnapshotIfDue() {
+        if (journal.isSnapshotDue() && snapshotScheduled.compareAndSet(false, true)) {
+            snapshotExecutor.execute(() -> {
+                try {
+                    writeSnapshot();
+                } catch (IOException e) {
+                    log.warn("Failed to write allocation snapshot", e);
+                } finally {
+                    snapshotScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    // Every append happens under an engineer lock, so holding all of them pins the state to the
+    // last logged sequence. Only the copy is taken under the locks; the file is written after.
+    // With no write in flight, this is also where the store reclaims replaced records: versions
+    // published so far stay readable through the old history, and the new one continues its numbering
+    private void writeSnapshot() throws IOException {
+        long sequence;
+        List<Allocation> state;
+        for (ReentrantLock lock : writeLocks) {
+            lock.lock();
+        }
+        try {
+            sequence = journal.rotate();
+            state = allocationStore.all();
+            if (allocationStore.compact()) {
+                VersionedAllocations<?> compacted = allocationStore.versions();
+                compacted.reset(state, versions.current().number());
+                versions = compacted;
+                log.info("Compacted the allocation store to {} allocations", state.size());
+            }
+        } finally {
+            for (ReentrantLock lock : writeLocks) {
+                lock.unlock();
+            }
+        }
+        journal.writeSnapshot(sequence, state);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshotExecutor.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    // --- Indexing ---
+
+    private ReentrantLock writeLockFor(String engineerId) {
+        return writeLocks[stripeFor(engineerId)];
+    }
+
+    private static int stripeFor(String engineerId) {
+        int h = engineerId.hashCode();
+        return (h ^ (h >>> 16)) & (WRITE_LOCK_STRIPES - 1);
+    }
+
+    private void indexEngineer(Engineer engineer) {
+        if (engineersById.putIfAbsent(engineer.id(), engineer) == null) {
+            engineers.add(engineer);
+            skillIndex.add(engineer);
+        }
+    }
+
+    private void indexProject(Project project) {
+        if (projectsById.putIfAbsent(project.id(), project) == null) {
+            projects.add(project);
+        }
+    }
+
+    // Seed data (allocations.json or snapshot.bin) must list every id once; a repeated id would
+    // silently replace the earlier allocation, so it is rejected instead
+    private void loadSeedAllocation(Allocation allocation) {
+        if (allocation.id() == null || allocationStore.get(allocation.id()) != null) {
+            if (duplicateSeedIds.incrementAndGet() <= LOGGED_STARTUP_WARNINGS) {
+                log.warn("Skipping seed allocation with missing or duplicate id: {}", allocation);
+            }
+            return;
+        }
+        recoverAllocation(allocation);
+    }
+
+    // Journal records may repeat an id: later records are updates of earlier ones
+    private void recoverAllocation(Allocation allocation) {
+        idGenerator.observe(allocation.id());
+        indexAllocation(allocation);
+    }
+
+    // Adds or replaces an allocation in the store and the engineer timelines; caller holds the
+    // engineer's lock (or is loading)
+    private void indexAllocation(Allocation allocation) {
+        Allocation previous = allocationStore.put(allocation);
+        if (previous != null) {
+            EngineerTimeline previousTimeline = timelinesByEngineerId.get(previous.engineerId());
+            previousTimeline.remove(previous.startDate(), previous.endDate(), previous.allocationPercentage());
+            if (previousTimeline.isEmpty()) {
+                timelinesByEngineerId.remove(previous.engineerId());
+            }
+            weeklyLoadByEngineerId.get(previous.engineerId())
+                    .remove(previous.startDate(), previous.endDate(), previous.allocationPercentage());
+            weeklyLoadByProjectId.get(previous.projectId())
+                    .remove(previous.startDate(), previous.endDate(), previous.allocationPercentage());
+        }
+        timelinesByEngineerId.computeIfAbsent(allocation.engineerId(), k -> new EngineerTimeline())
+                .add(allocation.startDate(), allocation.endDate(), allocation.allocationPercentage());
+        // Weekly loads are never dropped once created: a project's load is shared across lock stripes
+        weeklyLoadByEngineerId.computeIfAbsent(allocation.engineerId(), k -> new WeeklyLoad())
+                .add(allocation.startDate(), allocation.endDate(), allocation.allocationPercentage());
+        weeklyLoadByProjectId.computeIfAbsent(allocation.projectId(), k -> new WeeklyLoad())
+                .add(allocation.startDate(), allocation.endDate(), allocation.allocationPercentage());
+    }
+
+    // Derived indexes, exposed so tests can check them against the stored allocations; only
+    // meaningful while no write is in progress
+    EngineerTimeline timeline(String engineerId) {
+        return timelinesByEngineerId.get(engineerId);
+    }
+
+    WeeklyLoad engineerWeeklyLoad(String engineerId) {
+        return weeklyLoadByEngineerId.get(engineerId);
+    }
+
+    WeeklyLoad projectWeeklyLoad(String projectId) {
+        return weeklyLoadByProjectId.get(projectId);
+    }
+
     // --- Data Loading ---
 
-    @PostConstruct
-    public void loadData() throws IOException {
+    private static ObjectMapper createObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         objectMapper.disable(com.fasterxml.jackson.databind.DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+        return objectMapper;
+    }
 
-        // Load Engineers from classpath
-        try (var engineersStream = getClass().getClassLoader().getResourceAsStream("data/engineers.json")) {
-            if (engineersStream != null) {
-                List<Engineer> loadedEngineers = objectMapper.readValue(
-                        engineersStream, new TypeReference<>() {
-                        });
-                engineers.addAll(loadedEngineers);
-            }
+    /**
+     * Loads engineers, projects and seed allocations, then replays the allocation journal on top.
+     * <p>
+     * If {@code <dataFolder>/snapshot.bin} exists (see {@code SnapshotConverter}), everything is read
+     * from that memory-mapped binary image. Otherwise the three classpath JSON files are loaded in
+     * parallel, each streamed record by record straight into the indexes.
+     */
+    @PostConstruct
+    public void loadData() throws IOException {
+        long started = System.nanoTime();
+        journal = new AllocationJournal(Paths.get(dataFolder, "journal"), OBJECT_MAPPER, SNAPSHOT_INTERVAL);
+
+        // A binary snapshot in the data folder replaces the JSON seed files entirely
+        Path seedSnapshot = Paths.get(dataFolder, "snapshot.bin");
+        if (Files.exists(seedSnapshot)) {
+            boolean seedAllocations = !journal.hasSnapshot();
+            BinarySnapshot.read(seedSnapshot, this::indexEngineer, this::indexProject,
+                    seedAllocations ? this::loadSeedAllocation : a -> {
+                    });
+            journal.recover(this::recoverAllocation);
+            log.info("Loaded {} engineers, {} projects and {} allocations from {} in {} ms",
+                    engineers.size(), projects.size(), allocationStore.size(), seedSnapshot,
+                    (System.nanoTime() - started) / 1_000_000);
+            finishLoading(started);
+            return;
         }
 
-        // Load Projects from classpath
-        try (var projectsStream = getClass().getClassLoader().getResourceAsStream("data/projects.json")) {
-            if (projectsStream != null) {
-                List<Project> loadedProjects = objectMapper.readValue(
-                        projectsStream, new TypeReference<>() {
-                        });
-                projects.addAll(loadedProjects);
-            }
+        // Each file has its own loader thread, and each index is written by exactly one of them
+        ExecutorService loaders = Executors.newFixedThreadPool(3);
+        try {
+            CompletableFuture<Long> engineerCount = loadAsync(loaders,
+                    "data/engineers.json", Engineer.class, this::indexEngineer);
+            CompletableFuture<Long> projectCount = loadAsync(loaders,
+                    "data/projects.json", Project.class, this::indexProject);
+            // Allocations come from the journal once it has a snapshot; before that, the journal only
+            // holds the changes made on top of the classpath seed data
+            CompletableFuture<Long> seedCount = journal.hasSnapshot()
+                    ? CompletableFuture.completedFuture(0L)
+                    : loadAsync(loaders, "data/allocations.json", Allocation.class, this::loadSeedAllocation);
+
+            CompletableFuture.allOf(engineerCount, projectCount, seedCount).join();
+            journal.recover(this::recoverAllocation);
+
+            log.info("Loaded {} engineers, {} projects and {} allocations ({} from seed data) in {} ms",
+                    engineerCount.join(), projectCount.join(), allocationStore.size(), seedCount.join(),
+                    (System.nanoTime() - started) / 1_000_000);
+            finishLoading(started);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause);
+        } finally {
+            loaders.shutdown();
         }
+    }
 
-        // Load Allocations from classpath
-        try (var allocationsStream = getClass().getClassLoader().getResourceAsStream("data/allocations.json")) {
-            if (allocationsStream != null) {
-                List<Allocation> loadedAllocations = objectMapper.readValue(
-                        allocationsStream, new TypeReference<>() {
-                        });
-                allocations.addAll(loadedAllocations);
+    private static <T> CompletableFuture<Long> loadAsync(
+            ExecutorService executor, String resource, Class<T> type, Consumer<T> sink) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return StreamingJsonLoader.loadResource(OBJECT_MAPPER, resource, type, sink);
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
-        }
+        }, executor);
     }
 }
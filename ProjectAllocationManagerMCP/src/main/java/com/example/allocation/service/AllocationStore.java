@@ -0,0 +1,67 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Storage engine behind {@link AllocationService}.
+ * <p>
+ * Reads must be safe without external locking. Writes for one engineer are serialized by the
+ * service, but writes for different engineers may run concurrently.
+ */
+interface AllocationStore {
+
+    Allocation get(String id);
+
+    /**
+     * Adds the allocation, or replaces the one with the same id.
+     *
+     * @return the replaced allocation, or {@code null}
+     */
+    Allocation put(Allocation allocation);
+
+    List<Allocation> all();
+
+    List<Allocation> byEngineer(String engineerId);
+
+    List<Allocation> byProject(String projectId);
+
+    /**
+     * First allocation of the engineer to the project that overlaps {@code [start, end)}, skipping
+     * {@code excludedId}.
+     */
+    Allocation findOverlapping(String engineerId, String projectId,
+                               LocalDateTime start, LocalDateTime end, String excludedId);
+
+    int size();
+
+    /**
+     * An empty version history whose versions reference this store's records instead of copying
+     * them. A reference resolves to the record stored by the put it was taken after, even once a
+     * later put replaces the allocation.
+     */
+    VersionedAllocations<?> versions();
+
+    /**
+     * Reclaims the space held by replaced records, if the store keeps any and enough of them have
+     * piled up. Versions from histories created before a compaction keep resolving, but those
+     * histories must not publish again; the caller switches to a fresh {@link #versions()}.
+     *
+     * @return whether the store compacted
+     */
+    default boolean compact() {
+        return false;
+    }
+
+    static AllocationStore create(String type) {
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "indexed" -> new IndexedAllocationStore();
+            case "columnar" -> new ColumnarAllocationStore();
+            default -> throw new IllegalArgumentException(
+                    String.format("Unknown allocation store '%s'; expected 'indexed' or 'columnar'.", type));
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.AllocationChange;
+import com.example.allocation.model.AllocationChanges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, sequence-numbered ring buffer of {@link AllocationChange}s.
+ * <p>
+ * Publishing never blocks or waits for readers: it claims the next sequence with one atomic
+ * increment and overwrites the oldest slot. That is the backpressure policy. A reader that falls
+ * more than {@code capacity} changes behind is told its range was truncated and must resync from
+ * the full lists. Readers never see a gap: a read stops at the first sequence whose publisher has
+ * not stored it yet.
+ */
+final class ChangeFeed {
+
+    private final AtomicReferenceArray<AllocationChange> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong(1);
+
+    ChangeFeed(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Change feed capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    long nextSequence() {
+        return nextSequence.getAndIncrement();
+    }
+
+    // The change must carry a sequence obtained from nextSequence()
+    void publish(AllocationChange change) {
+        slots.set((int) (change.sequence() & mask), change);
+    }
+
+    /**
+     * Highest sequence handed out so far; its change may still be in the middle of publishing.
+     */
+    long newestSequence() {
+        return nextSequence.get() - 1;
+    }
+
+    /**
+     * Up to {@code limit} changes with a sequence above {@code after}.
+     */
+    AllocationChanges since(long after, int limit) {
+        long newest = nextSequence.get() - 1;
+        long oldest = Math.max(1, newest - mask);
+        boolean truncated = after < oldest - 1 || after > newest;
+        long sequence = truncated ? oldest : after + 1;
+
+        List<AllocationChange> changes = new ArrayList<>(Math.min(limit, 64));
+        while (sequence <= newest && changes.size() < limit) {
+            AllocationChange change = slots.get((int) (sequence & mask));
+            if (change == null || change.sequence() < sequence) {
+                break; // claimed but not stored yet
+            }
+            if (change.sequence() > sequence) {
+                // Overwritten while reading; everything from here on is newer than the caller expects
+                truncated = true;
+                sequence = change.sequence() - mask;
+                changes.clear();
+                continue;
+            }
+            changes.add(change);
+            sequence++;
+        }
+        return new AllocationChanges(changes, sequence - 1, truncated);
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Allocation store that keeps rows in parallel primitive columns instead of one object per
+ * allocation.
+ * <p>
+ * Engineer and project ids are interned into dense ordinals, dates are stored as epoch days and
+ * percentages as bytes. Columns are allocated in fixed-size chunks, so growing never copies row
+ * data. {@link Allocation} records are only built when a caller asks for them, and the overlap
+ * scan in {@link #findOverlapping} runs entirely on the primitive columns. Dates are
+ * day-precision, like every allocation the service creates.
+ * <p>
+ * Rows are append-only: replacing an allocation writes a new row, so a row number always stands
+ * for the same record and published {@link VersionedAllocations} hold row numbers rather than
+ * records. Once a quarter of the rows are replaced ones, {@link #compact} copies the live rows
+ * into fresh columns. The old columns are left untouched for the histories that still reference
+ * them, and are collected once the last of their versions is dropped.
+ * <p>
+ * Writes take a short exclusive {@link StampedLock}. Reads are optimistic and only fall back to
+ * the read lock if a write raced with them.
+ */
+final class ColumnarAllocationStore implements AllocationStore {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    // Compact once replaced rows make up 1/COMPACTION_THRESHOLD of all rows
+    private static final int COMPACTION_THRESHOLD = 4;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Integer> rowsById = new ConcurrentHashMap<>();
+    private final Dictionary engineers = new Dictionary();
+    private final Dictionary projects = new Dictionary();
+
+    // Replaced by compact(); only the current columns are ever written
+    private volatile Columns columns = new Columns();
+
+    // Row lookups happen inside the read, so a compaction racing with them fails the validation
+    @Override
+    public Allocation get(String id) {
+        if (id == null) {
+            return null;
+        }
+        return read(() -> {
+            Integer row = rowsById.get(id);
+            return row == null ? null : materialize(columns, row);
+        });
+    }
+
+    @Override
+    public Allocation put(Allocation allocation) {
+        long stamp = lock.writeLock();
+        try {
+            int engineer = engineers.intern(allocation.engineerId());
+            int project = projects.intern(allocation.projectId());
+            Integer existing = rowsById.get(allocation.id());
+
+            // A replaced allocation moves to a fresh row; the old row stays as published versions saw it
+            Columns current = columns;
+            Allocation previous = null;
+            if (existing != null) {
+                previous = materialize(current, existing);
+                engineers.removeRow(column(current.engineerOrdinals, existing), existing);
+                projects.removeRow(column(current.projectOrdinals, existing), existing);
+            }
+            int row = current.append(allocation.id(), engineer, project, toEpochDay(allocation.startDate()),
+                    toEpochDay(allocation.endDate()), (byte) allocation.allocationPercentage());
+            engineers.addRow(engineer, row);
+            projects.addRow(project, row);
+            rowsById.put(allocation.id(), row);
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Allocation> all() {
+        return read(() -> {
+            Columns current = columns;
+            int count = current.rowCount;
+            List<Allocation> result = new ArrayList<>(count);
+            for (int row = 0; row < count; row++) {
+                if (isLive(current, row)) {
+                    result.add(materialize(current, row));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<Allocation> byEngineer(String engineerId) {
+        return materializeRows(engineers, engineerId);
+    }
+
+    @Override
+    public List<Allocation> byProject(String projectId) {
+        return materializeRows(projects, projectId);
+    }
+
+    @Override
+    public Allocation findOverlapping(String engineerId, String projectId,
+                                      LocalDateTime start, LocalDateTime end, String excludedId) {
+        Integer engineer = engineers.ordinalOf(engineerId);
+        Integer project = projects.ordinalOf(projectId);
+        if (engineer == null || project == null) {
+            return null;
+        }
+        int from = toEpochDay(start);
+        int to = toEpochDay(end);
+
+        return read(() -> {
+            Columns current = columns;
+            Integer excludedRow = excludedId == null ? null : rowsById.get(excludedId);
+            int excluded = excludedRow == null ? -1 : excludedRow;
+            int[] rows = engineers.rows[engineer];
+            int count = engineers.rowCounts[engineer];
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                int chunk = row >>> CHUNK_BITS;
+                int offset = row & CHUNK_MASK;
+                if (row != excluded
+                        && current.projectOrdinals[chunk][offset] == project
+                        && overlaps(from, to, current.startDays[chunk][offset], current.endDays[chunk][offset])) {
+                    return materialize(current, row);
+                }
+            }
+            return null;
+        });
+    }
+
+    // Row numbers are never reused within one set of columns, so versions can hold them and
+    // materialize on read; the history keeps the columns it was created on even after a compaction
+    @Override
+    public VersionedAllocations<?> versions() {
+        Columns created = columns;
+        return new VersionedAllocations<Integer>(rowsById::get, row -> read(() -> materialize(created, row)));
+    }
+
+    /**
+     * Copies the live rows into fresh columns once at least a quarter of the rows hold replaced
+     * records. Row numbers change, so histories created before a compaction must not publish
+     * again; earlier versions keep resolving against the old columns.
+     */
+    @Override
+    public boolean compact() {
+        long stamp = lock.writeLock();
+        try {
+            Columns current = columns;
+            int dead = current.rowCount - rowsById.size();
+            if (dead == 0 || dead < current.rowCount / COMPACTION_THRESHOLD) {
+                return false;
+            }
+            Columns compacted = new Columns();
+            engineers.clearRows();
+            projects.clearRows();
+            for (int row = 0; row < current.rowCount; row++) {
+                if (!isLive(current, row)) {
+                    continue;
+                }
+                int chunk = row >>> CHUNK_BITS;
+                int offset = row & CHUNK_MASK;
+                int engineer = current.engineerOrdinals[chunk][offset];
+                int project = current.projectOrdinals[chunk][offset];
+                String id = current.ids[chunk][offset];
+                int moved = compacted.append(id, engineer, project, current.startDays[chunk][offset],
+                        current.endDays[chunk][offset], current.percentages[chunk][offset]);
+                engineers.addRow(engineer, moved);
+                projects.addRow(project, moved);
+                rowsById.put(id, moved);
+            }
+            columns = compacted;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Rows held, live and replaced, in the current columns
+    int rowCount() {
+        return read(() -> columns.rowCount);
+    }
+
+    @Override
+    public int size() {
+        return rowsById.size();
+    }
+
+    // --- Internals ---
+
+    private List<Allocation> materializeRows(Dictionary dictionary, String key) {
+        Integer ordinal = dictionary.ordinalOf(key);
+        if (ordinal == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> {
+            Columns current = columns;
+            int[] rows = dictionary.rows[ordinal];
+            int count = dictionary.rowCounts[ordinal];
+            List<Allocation> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(materialize(current, rows[i]));
+            }
+            return result;
+        });
+    }
+
+    // A racing write may leave the optimistic view torn, including stale array references, so any
+    // failure there is treated like a failed validation and retried under the read lock
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Fall through to the locked read
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Whether the row holds the allocation's current record rather than one it was replaced by
+    private boolean isLive(Columns columns, int row) {
+        Integer current = rowsById.get(columns.ids[row >>> CHUNK_BITS][row & CHUNK_MASK]);
+        return current != null && current == row;
+    }
+
+    // Ordinals never change and dictionary values are only appended, so old columns resolve too
+    private Allocation materialize(Columns columns, int row) {
+        int chunk = row >>> CHUNK_BITS;
+        int offset = row & CHUNK_MASK;
+        return new Allocation(
+                columns.ids[chunk][offset],
+                engineers.values[columns.engineerOrdinals[chunk][offset]],
+                projects.values[columns.projectOrdinals[chunk][offset]],
+                columns.percentages[chunk][offset],
+                fromEpochDay(columns.startDays[chunk][offset]),
+                fromEpochDay(columns.endDays[chunk][offset]));
+    }
+
+    private static int column(int[][] column, int row) {
+        return column[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    // Half-open day ranges; NO_DATE as an end means open-ended
+    private static boolean overlaps(int start1, int end1, int start2, int end2) {
+        boolean startsBeforeSecondEnds = end2 == NO_DATE || start1 < end2;
+        boolean endsAfterSecondStarts = end1 == NO_DATE || end1 > start2;
+        return startsBeforeSecondEnds && endsAfterSecondStarts;
+    }
+
+    private static int toEpochDay(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : Math.toIntExact(dateTime.toLocalDate().toEpochDay());
+    }
+
+    private static LocalDateTime fromEpochDay(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay).atStartOfDay();
+    }
+
+    /**
+     * The row columns, indexed [row >>> CHUNK_BITS][row & CHUNK_MASK]. Appended to only under
+     * the store's write lock.
+     */
+    private static final class Columns {
+        private String[][] ids = new String[16][];
+        private int[][] engineerOrdinals = new int[16][];
+        private int[][] projectOrdinals = new int[16][];
+        private int[][] startDays = new int[16][];
+        private int[][] endDays = new int[16][];
+        private byte[][] percentages = new byte[16][];
+        private int rowCount;
+
+        int append(String id, int engineer, int project, int startDay, int endDay, byte percentage) {
+            int row = rowCount;
+            int chunk = row >>> CHUNK_BITS;
+            int offset = row & CHUNK_MASK;
+            ensureChunk(chunk);
+            ids[chunk][offset] = id;
+            engineerOrdinals[chunk][offset] = engineer;
+            projectOrdinals[chunk][offset] = project;
+            startDays[chunk][offset] = startDay;
+            endDays[chunk][offset] = endDay;
+            percentages[chunk][offset] = percentage;
+            rowCount = row + 1;
+            return row;
+        }
+
+        private void ensureChunk(int chunk) {
+            if (chunk == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                engineerOrdinals = Arrays.copyOf(engineerOrdinals, capacity);
+                projectOrdinals = Arrays.copyOf(projectOrdinals, capacity);
+                startDays = Arrays.copyOf(startDays, capacity);
+                endDays = Arrays.copyOf(endDays, capacity);
+                percentages = Arrays.copyOf(percentages, capacity);
+            }
+            if (ids[chunk] == null) {
+                ids[chunk] = new String[CHUNK_SIZE];
+                engineerOrdinals[chunk] = new int[CHUNK_SIZE];
+                projectOrdinals[chunk] = new int[CHUNK_SIZE];
+                startDays[chunk] = new int[CHUNK_SIZE];
+                endDays[chunk] = new int[CHUNK_SIZE];
+                percentages[chunk] = new byte[CHUNK_SIZE];
+            }
+        }
+    }
+
+    /**
+     * Dense ordinals for engineer or project ids, with the rows that reference each ordinal.
+     * Mutated only under the store's write lock.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        private String[] values = new String[64];
+        private int[][] rows = new int[64][];
+        private int[] rowCounts = new int[64];
+        private int size;
+
+        Integer ordinalOf(String value) {
+            return value == null ? null : ordinals.get(value);
+        }
+
+        int intern(String value) {
+            Integer ordinal = ordinals.get(value);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+                rowCounts = Arrays.copyOf(rowCounts, size * 2);
+            }
+            values[size] = value;
+            rows[size] = new int[4];
+            ordinals.put(value, size);
+            return size++;
+        }
+
+        void addRow(int ordinal, int row) {
+            int count = rowCounts[ordinal];
+            if (count == rows[ordinal].length) {
+                rows[ordinal] = Arrays.copyOf(rows[ordinal], count * 2);
+            }
+            rows[ordinal][count] = row;
+            rowCounts[ordinal] = count + 1;
+        }
+
+        void clearRows() {
+            Arrays.fill(rowCounts, 0, size, 0);
+        }
+
+        void removeRow(int ordinal, int row) {
+            int[] list = rows[ordinal];
+            int count = rowCounts[ordinal];
+            for (int i = 0; i < count; i++) {
+                if (list[i] == row) {
+                    System.arraycopy(list, i + 1, list, i, count - i - 1);
+                    rowCounts[ordinal] = count - 1;
+                    return;
+                }
+            }
+        }
+    }
+}
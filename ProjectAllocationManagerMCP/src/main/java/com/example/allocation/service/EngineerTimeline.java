@@ -0,0 +1,264 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Allocated percentage of a single engineer over time.
+ * <p>
+ * Every allocation contributes {@code +percentage} at its start and {@code -percentage} at its
+ * end, so the load at an instant is the sum of all deltas at or before it. Open-ended allocations
+ * ({@code endDate == null}) never contribute the closing delta. Deltas are kept in a treap keyed by
+ * instant, where each node also tracks the sum and the maximum prefix sum of its subtree. That
+ * makes adding/removing an allocation and asking for the peak load in a window O(log n).
+ * <p>
+ * Intervals are half-open, {@code [start, end)}, matching the overlap rule used by
+ * {@link AllocationService}. Not thread-safe.
+ */
+final class EngineerTimeline {
+
+    private static final class Node {
+        final long key;
+        final int priority;
+        int delta;
+        int sum;
+        // Largest sum of any in-order prefix of this subtree; the empty prefix counts, so never negative
+        int maxPrefix;
+        Node left;
+        Node right;
+
+        Node(long key, int delta) {
+            this.key = key;
+            this.delta = delta;
+            this.priority = ThreadLocalRandom.current().nextInt();
+            update();
+        }
+
+        void update() {
+            int leftSum = left == null ? 0 : left.sum;
+            int leftMax = left == null ? 0 : left.maxPrefix;
+            int rightSum = right == null ? 0 : right.sum;
+            int rightMax = right == null ? 0 : right.maxPrefix;
+            sum = leftSum + delta + rightSum;
+            maxPrefix = Math.max(leftMax, leftSum + delta + rightMax);
+        }
+    }
+
+    private Node root;
+    private int allocationCount;
+
+    public void add(LocalDateTime start, LocalDateTime end, int percentage) {
+        addDelta(toKey(start), percentage);
+        if (end != null) {
+            addDelta(toKey(end), -percentage);
+        }
+        allocationCount++;
+    }
+
+    public void remove(LocalDateTime start, LocalDateTime end, int percentage) {
+        addDelta(toKey(start), -percentage);
+        if (end != null) {
+            addDelta(toKey(end), percentage);
+        }
+        allocationCount--;
+    }
+
+    public boolean isEmpty() {
+        return allocationCount == 0;
+    }
+
+    /**
+     * Highest total allocation at any instant in {@code [start, end)}; a {@code null} end means the
+     * window is open-ended.
+     */
+    public int peakLoad(LocalDateTime start, LocalDateTime end) {
+        long from = toKey(start);
+        long to = end == null ? Long.MAX_VALUE : toKey(end);
+        if (to <= from) {
+            return 0;
+        }
+
+        // The load only changes at keys, so the peak is either the load at the window start or
+        // the load right after one of the keys strictly inside the window
+        int loadAtStart = prefixSum(from);
+        if (to - from == 1) {
+            return loadAtStart;
+        }
+        return loadAtStart + maxPrefix(rangeQuery(root, from + 1, to - 1));
+    }
+
+    /**
+     * Peak load of {@code allocations} in {@code [start, end)}, computed by sweeping their clipped
+     * start and end instants. For reads over an immutable list, e.g. a published version, that must
+     * not touch the live timeline. O(k log k) for k allocations.
+     */
+    static int peakLoad(List<Allocation> allocations, LocalDateTime start, LocalDateTime end) {
+        long from = toKey(start);
+        long to = end == null ? Long.MAX_VALUE : toKey(end);
+        // Events are (instant << 9 | start flag << 8 | percentage); at equal instants ends sort
+        // first, since an allocation ending there no longer overlaps one starting there
+        long[] events = new long[allocations.size() * 2];
+        int count = 0;
+        for (Allocation allocation : allocations) {
+            long allocationStart = toKey(allocation.startDate());
+            long allocationEnd = allocation.endDate() == null ? Long.MAX_VALUE : toKey(allocation.endDate());
+            if (allocationStart >= to || allocationEnd <= from) {
+                continue;
+            }
+            events[count++] = Math.max(allocationStart, from) << 9 | 1 << 8 | allocation.allocationPercentage();
+            if (allocationEnd < to) {
+                events[count++] = allocationEnd << 9 | allocation.allocationPercentage();
+            }
+        }
+        Arrays.sort(events, 0, count);
+        int load = 0;
+        int peak = 0;
+        for (int i = 0; i < count; i++) {
+            int percentage = (int) (events[i] & 0xFF);
+            load += (events[i] & 1 << 8) != 0 ? percentage : -percentage;
+            peak = Math.max(peak, load);
+        }
+        return peak;
+    }
+
+    // --- Treap operations ---
+
+    private void addDelta(long key, int delta) {
+        Node[] lowerAndRest = split(root, key);
+        Node[] matchAndUpper = split(lowerAndRest[1], key + 1);
+        Node match = matchAndUpper[0];
+        if (match == null) {
+            match = new Node(key, delta);
+        } else {
+            match.delta += delta;
+            if (match.delta == 0) {
+                match = null;
+            } else {
+                match.update();
+            }
+        }
+        root = merge(merge(lowerAndRest[0], match), matchAndUpper[1]);
+    }
+
+    // Splits into keys < key and keys >= key
+    private static Node[] split(Node node, long key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (node.key < key) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    private static Node merge(Node lower, Node upper) {
+        if (lower == null) {
+            return upper;
+        }
+        if (upper == null) {
+            return lower;
+        }
+        if (lower.priority > upper.priority) {
+            lower.right = merge(lower.right, upper);
+            lower.update();
+            return lower;
+        }
+        upper.left = merge(lower, upper.left);
+        upper.update();
+        return upper;
+    }
+
+    // Sum of all deltas with key <= given key
+    private int prefixSum(long key) {
+        int total = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.key <= key) {
+                total += (node.left == null ? 0 : node.left.sum) + node.delta;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return total;
+    }
+
+    // --- Read-only range aggregation ---
+    // Aggregates are packed as (sum << 32 | maxPrefix) to keep the query path allocation-free
+
+    private static final long EMPTY = 0L;
+
+    private static long pack(int sum, int maxPrefix) {
+        return ((long) sum << 32) | (maxPrefix & 0xFFFFFFFFL);
+    }
+
+    private static int sum(long aggregate) {
+        return (int) (aggregate >> 32);
+    }
+
+    private static int maxPrefix(long aggregate) {
+        return (int) aggregate;
+    }
+
+    private static long whole(Node node) {
+        return node == null ? EMPTY : pack(node.sum, node.maxPrefix);
+    }
+
+    private static long concat(long first, int delta, long second) {
+        int firstSum = sum(first);
+        return pack(firstSum + delta + sum(second),
+                Math.max(maxPrefix(first), firstSum + delta + maxPrefix(second)));
+    }
+
+    private static long rangeQuery(Node node, long lo, long hi) {
+        while (node != null) {
+            if (node.key < lo) {
+                node = node.right;
+            } else if (node.key > hi) {
+                node = node.left;
+            } else {
+                return concat(suffixQuery(node.left, lo), node.delta, prefixQuery(node.right, hi));
+            }
+        }
+        return EMPTY;
+    }
+
+    // Aggregate over keys >= lo
+    private static long suffixQuery(Node node, long lo) {
+        if (node == null) {
+            return EMPTY;
+        }
+        if (node.key < lo) {
+            return suffixQuery(node.right, lo);
+        }
+        return concat(suffixQuery(node.left, lo), node.delta, whole(node.right));
+    }
+
+    // Aggregate over keys <= hi
+    private static long prefixQuery(Node node, long hi) {
+        if (node == null) {
+            return EMPTY;
+        }
+        if (node.key > hi) {
+            return prefixQuery(node.left, hi);
+        }
+        return concat(whole(node.left), node.delta, prefixQuery(node.right, hi));
+    }
+
+    private static long toKey(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
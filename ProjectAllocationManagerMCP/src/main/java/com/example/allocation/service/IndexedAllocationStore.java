@@ -0,0 +1,105 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Allocation store built from concurrent hash maps: one id-keyed primary index plus secondary
+ * indexes from engineer and project id to their allocations.
+ */
+final class IndexedAllocationStore implements AllocationStore {
+
+    private final Map<String, Allocation> allocationsById = new ConcurrentHashMap<>();
+
+    // Secondary indexes from engineer/project id to their allocations, keyed by allocation id
+    private final Map<String, Map<String, Allocation>> allocationsByEngineerId = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Allocation>> allocationsByProjectId = new ConcurrentHashMap<>();
+
+    @Override
+    public Allocation get(String id) {
+        return id == null ? null : allocationsById.get(id);
+    }
+
+    @Override
+    public Allocation put(Allocation allocation) {
+        Allocation previous = allocationsById.put(allocation.id(), allocation);
+        // Buckets keyed the same way are overwritten in place below, so readers never see a gap
+        if (previous != null && !previous.engineerId().equals(allocation.engineerId())) {
+            removeFromIndex(allocationsByEngineerId, previous.engineerId(), previous.id());
+        }
+        if (previous != null && !previous.projectId().equals(allocation.projectId())) {
+            removeFromIndex(allocationsByProjectId, previous.projectId(), previous.id());
+        }
+        addToIndex(allocationsByEngineerId, allocation.engineerId(), allocation);
+        addToIndex(allocationsByProjectId, allocation.projectId(), allocation);
+        return previous;
+    }
+
+    @Override
+    public List<Allocation> all() {
+        return new ArrayList<>(allocationsById.values());
+    }
+
+    @Override
+    public List<Allocation> byEngineer(String engineerId) {
+        Map<String, Allocation> engineerAllocations = allocationsByEngineerId.get(engineerId);
+        return engineerAllocations == null ? new ArrayList<>() : new ArrayList<>(engineerAllocations.values());
+    }
+
+    @Override
+    public List<Allocation> byProject(String projectId) {
+        Map<String, Allocation> projectAllocations = allocationsByProjectId.get(projectId);
+        return projectAllocations == null ? new ArrayList<>() : new ArrayList<>(projectAllocations.values());
+    }
+
+    @Override
+    public Allocation findOverlapping(String engineerId, String projectId,
+                                      LocalDateTime start, LocalDateTime end, String excludedId) {
+        Map<String, Allocation> engineerAllocations = allocationsByEngineerId.get(engineerId);
+        if (engineerAllocations == null) {
+            return null;
+        }
+        for (Allocation a : engineerAllocations.values()) {
+            if (a.projectId().equals(projectId)
+                    && !a.id().equals(excludedId)
+                    && AllocationService.datesOverlap(start, end, a.startDate(), a.endDate())) {
+                return a;
+            }
+        }
+        return null;
+    }
+
+    // Records are immutable and replaced rather than modified, so versions can hold them directly
+    @Override
+    public VersionedAllocations<?> versions() {
+        return new VersionedAllocations<Allocation>(allocationsById::get, allocation -> allocation);
+    }
+
+    @Override
+    public int size() {
+        return allocationsById.size();
+    }
+
+    // The project index is shared across engineer locks, so bucket creation and removal go through
+    // the map's atomic compute methods
+    private static void addToIndex(Map<String, Map<String, Allocation>> index, String key, Allocation allocation) {
+        index.compute(key, (k, entries) -> {
+            Map<String, Allocation> bucket = entries != null ? entries : new ConcurrentSkipListMap<>();
+            bucket.put(allocation.id(), allocation);
+            return bucket;
+        });
+    }
+
+    private static void removeFromIndex(Map<String, Map<String, Allocation>> index, String key, String allocationId) {
+        index.computeIfPresent(key, (k, entries) -> {
+            entries.remove(allocationId);
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+}
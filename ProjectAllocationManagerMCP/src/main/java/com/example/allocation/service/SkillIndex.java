@@ -0,0 +1,68 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Engineer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inverted index from skill to the engineers that have it.
+ * <p>
+ * Every engineer gets a dense ordinal in load order and every skill (compared case-insensitively)
+ * a {@link BitSet} of those ordinals, so "has all of these skills" is a handful of word-wise ANDs
+ * no matter how many engineers there are. Filled while loading, read-only afterwards.
+ */
+final class SkillIndex {
+
+    private final List<Engineer> engineers = new ArrayList<>();
+    private final Map<String, BitSet> engineersBySkill = new HashMap<>();
+
+    void add(Engineer engineer) {
+        int ordinal = engineers.size();
+        engineers.add(engineer);
+        if (engineer.skills() != null) {
+            for (String skill : engineer.skills()) {
+                engineersBySkill.computeIfAbsent(key(skill), k -> new BitSet()).set(ordinal);
+            }
+        }
+    }
+
+    Engineer engineer(int ordinal) {
+        return engineers.get(ordinal);
+    }
+
+    /**
+     * Ordinals of the engineers having every one of {@code skills}; all engineers if none are
+     * given. The result is a fresh set the caller may modify.
+     */
+    BitSet matching(Collection<String> skills) {
+        BitSet result = new BitSet(engineers.size());
+        result.set(0, engineers.size());
+        if (skills == null) {
+            return result;
+        }
+        for (String skill : skills) {
+            if (skill == null || skill.isBlank()) {
+                continue;
+            }
+            BitSet withSkill = engineersBySkill.get(key(skill));
+            if (withSkill == null) {
+                return new BitSet();
+            }
+            result.and(withSkill);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static String key(String skill) {
+        return skill.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.allocation.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads a top-level JSON array one element at a time with Jackson's streaming parser, so a large
+ * data file never has to be materialized as a list before it is indexed.
+ */
+final class StreamingJsonLoader {
+
+    private StreamingJsonLoader() {
+    }
+
+    /**
+     * Parses every element of the classpath resource's top-level array and hands it to the sink.
+     * A missing resource counts as empty.
+     *
+     * @return the number of elements read
+     */
+    static <T> long loadResource(ObjectMapper objectMapper, String resource, Class<T> type, Consumer<T> sink)
+            throws IOException {
+        try (InputStream stream = StreamingJsonLoader.class.getClassLoader().getResourceAsStream(resource)) {
+            if (stream == null) {
+                return 0;
+            }
+            return load(objectMapper, stream, type, sink);
+        }
+    }
+
+    static <T> long load(ObjectMapper objectMapper, InputStream stream, Class<T> type, Consumer<T> sink)
+            throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of " + type.getSimpleName());
+            }
+            long count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(objectMapper.readValue(parser, type));
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.allocation.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, time-sortable allocation ids such as {@code alloc-0128x4jk2ba9s}.
+ * <p>
+ * Each id encodes a 64-bit value: the epoch millisecond in the high bits and a 16-bit sequence in
+ * the low bits, rendered as fixed-width base 36 so ids sort by creation time as plain strings.
+ * The value is advanced with a CAS loop, never moves backwards even if the clock does, and is
+ * bumped past every observed id of this shape, so ids are unique across restarts as well.
+ * Bursts of more than 65536 ids in one millisecond borrow from the next millisecond.
+ */
+public final class TimeOrderedIdGenerator implements AllocationIdGenerator {
+
+    private static final String PREFIX = "alloc-";
+    private static final int SEQUENCE_BITS = 16;
+    private static final int RADIX = Character.MAX_RADIX;
+    // Digits of Long.MAX_VALUE in base 36
+    private static final int WIDTH = Long.toString(Long.MAX_VALUE, RADIX).length();
+
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public String nextId() {
+        long floor = System.currentTimeMillis() << SEQUENCE_BITS;
+        long value;
+        long previous;
+        do {
+            previous = last.get();
+            value = Math.max(previous + 1, floor);
+        } while (!last.compareAndSet(previous, value));
+        return format(value);
+    }
+
+    @Override
+    public void observe(String existingId) {
+        long value = parse(existingId);
+        if (value >= 0) {
+            last.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    private static String format(long value) {
+        char[] id = new char[PREFIX.length() + WIDTH];
+        PREFIX.getChars(0, PREFIX.length(), id, 0);
+        for (int i = id.length - 1; i >= PREFIX.length(); i--) {
+            id[i] = Character.forDigit((int) (value % RADIX), RADIX);
+            value /= RADIX;
+        }
+        return new String(id);
+    }
+
+    // Value of an id in this generator's format, or -1 for any other id
+    private static long parse(String id) {
+        if (id == null || id.length() != PREFIX.length() + WIDTH || !id.startsWith(PREFIX)) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = PREFIX.length(); i < id.length(); i++) {
+            int digit = Character.digit(id.charAt(i), RADIX);
+            if (digit < 0 || Character.isUpperCase(id.charAt(i)) || value > (Long.MAX_VALUE - digit) / RADIX) {
+                return -1;
+            }
+            value = value * RADIX + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,432 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Immutable, numbered versions of the allocation state, published atomically after every write
+ * or write batch.
+ * <p>
+ * A {@link Version} keeps all allocations, and each engineer's and each project's, in persistent
+ * treaps ordered by allocation id. A write copies only the nodes on the paths to the allocations
+ * it touches, O(log n) per tree; every other node is shared with the previous version. The
+ * per-engineer and per-project roots are reached through a two-level table of
+ * {@code CHUNK_SIZE}-entry chunks, indexed by dense ordinals, of which a write copies the
+ * chunks it touches and the small top-level table. Publishing is a CAS on the current version,
+ * so writers for different engineers never block each other. The last {@code HISTORY} versions
+ * stay reachable for time-travel reads.
+ * <p>
+ * Versions hold no allocation records of their own. Each entry is a reference of type {@code R}
+ * handed out by the {@link AllocationStore} that created this history, and it keeps resolving to
+ * the record as it was when published; see {@link AllocationStore#versions()}.
+ * <p>
+ * Readers take {@link #current()} once and get a consistent view without locking.
+ */
+final class VersionedAllocations<R> {
+
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int HISTORY = 1024;
+
+    // Grow-only, shared by every version
+    private final Map<String, Integer> engineerOrdinals = new ConcurrentHashMap<>();
+    private final Map<String, Integer> projectOrdinals = new ConcurrentHashMap<>();
+
+    private final Function<String, R> reference;
+    private final Function<R, Allocation> resolve;
+    private final AtomicReference<Version> current;
+    private final AtomicReferenceArray<Version> history = new AtomicReferenceArray<>(HISTORY);
+
+    /**
+     * @param reference the store's reference to the record it currently holds for an allocation id
+     * @param resolve   the record a reference stands for
+     */
+    VersionedAllocations(Function<String, R> reference, Function<R, Allocation> resolve) {
+        this.reference = reference;
+        this.resolve = resolve;
+        Version empty = new Version(0, Instant.now(), 0, null, table(0), table(0));
+        current = new AtomicReference<>(empty);
+        history.set(0, empty);
+    }
+
+    // A treap node; the priority comes from the id, so a copied node keeps its place in the heap order.
+    // Children are only assigned while a node is being built, before it is published
+    private static final class Node<R> {
+        final String id;
+        final R reference;
+        final int priority;
+        Node<R> left;
+        Node<R> right;
+
+        Node(String id, R reference, Node<R> left, Node<R> right) {
+            this.id = id;
+            this.reference = reference;
+            this.priority = priority(id);
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * One published state. All methods return copies or immutable views, in allocation id order.
+     */
+    final class Version {
+        private final long number;
+        private final Instant publishedAt;
+        private final int size;
+        private final Node<R> all;
+        private final Node<R>[][] byEngineer;
+        private final Node<R>[][] byProject;
+
+        private Version(long number, Instant publishedAt, int size, Node<R> all,
+                        Node<R>[][] byEngineer, Node<R>[][] byProject) {
+            this.number = number;
+            this.publishedAt = publishedAt;
+            this.size = size;
+            this.all = all;
+            this.byEngineer = byEngineer;
+            this.byProject = byProject;
+        }
+
+        long number() {
+            return number;
+        }
+
+        Instant publishedAt() {
+            return publishedAt;
+        }
+
+        int size() {
+            return size;
+        }
+
+        List<Allocation> all() {
+            return list(all, size);
+        }
+
+        List<Allocation> byEngineer(String engineerId) {
+            return list(lookup(byEngineer, engineerOrdinals, engineerId), 16);
+        }
+
+        List<Allocation> byProject(String projectId) {
+            return list(lookup(byProject, projectOrdinals, projectId), 16);
+        }
+
+        /**
+         * Allocations with ids after {@code afterId}, or all of them if it is {@code null}, in id
+         * order. Finding the first one is a descent of the tree; records are resolved as they are
+         * visited, so a caller that stops early pays only for what it read.
+         */
+        Iterator<Allocation> allAfter(String afterId) {
+            return new InOrder(all, afterId);
+        }
+
+        Iterator<Allocation> byEngineerAfter(String engineerId, String afterId) {
+            return new InOrder(lookup(byEngineer, engineerOrdinals, engineerId), afterId);
+        }
+
+        Iterator<Allocation> byProjectAfter(String projectId, String afterId) {
+            return new InOrder(lookup(byProject, projectOrdinals, projectId), afterId);
+        }
+
+        // Engineers with at least one allocation in this version; allocations are never removed,
+        // so every root in the table has one
+        List<String> engineerIds() {
+            List<String> ids = new ArrayList<>();
+            for (Node<R>[] chunk : byEngineer) {
+                if (chunk == null) {
+                    continue;
+                }
+                for (Node<R> root : chunk) {
+                    if (root != null) {
+                        ids.add(resolve.apply(root.reference).engineerId());
+                    }
+                }
+            }
+            return ids;
+        }
+
+        private List<Allocation> list(Node<R> root, int expectedSize) {
+            List<Allocation> result = new ArrayList<>(expectedSize);
+            new InOrder(root, null).forEachRemaining(result::add);
+            return result;
+        }
+    }
+
+    // In-order walk of a treap, starting after a given id; the path holds the nodes still to visit
+    // whose left subtrees are done
+    private final class InOrder implements Iterator<Allocation> {
+        private final Deque<Node<R>> path = new ArrayDeque<>();
+
+        InOrder(Node<R> root, String afterId) {
+            Node<R> node = root;
+            while (node != null) {
+                if (afterId == null || node.id.compareTo(afterId) > 0) {
+                    path.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public Allocation next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<R> node = path.pop();
+            for (Node<R> next = node.right; next != null; next = next.left) {
+                path.push(next);
+            }
+            return resolve.apply(node.reference);
+        }
+    }
+
+    Version current() {
+        return current.get();
+    }
+
+    /**
+     * The given version if it is still retained, otherwise {@code null}.
+     */
+    Version at(long number) {
+        Version version = history.get((int) (number % HISTORY));
+        return version != null && version.number == number ? version : null;
+    }
+
+    /**
+     * Retained versions, newest first, at most {@code limit} of them.
+     */
+    List<Version> recent(int limit) {
+        List<Version> result = new ArrayList<>(Math.min(limit, HISTORY));
+        for (long number = current().number; number >= 0 && result.size() < limit; number--) {
+            Version version = at(number);
+            if (version == null) {
+                break;
+            }
+            result.add(version);
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the whole state with the store's current records of {@code allocations}, e.g. once
+     * loading has finished. Not safe against concurrent {@link #publish} calls.
+     */
+    void reset(Collection<Allocation> allocations) {
+        reset(allocations, current.get().number);
+    }
+
+    /**
+     * Like {@link #reset(Collection)}, but numbers the new version after {@code after}, so that a
+     * history replacing another one continues its numbering. The versions of this history from
+     * before the reset are no longer retained.
+     */
+    void reset(Collection<Allocation> allocations, long after) {
+        List<Allocation> sorted = new ArrayList<>(allocations);
+        sorted.sort(Comparator.comparing(Allocation::id));
+        List<Node<R>> all = new ArrayList<>(sorted.size());
+        Map<Integer, List<Node<R>>> engineers = new HashMap<>();
+        Map<Integer, List<Node<R>>> projects = new HashMap<>();
+        for (Allocation a : sorted) {
+            R ref = reference.apply(a.id());
+            all.add(new Node<>(a.id(), ref, null, null));
+            engineers.computeIfAbsent(ordinal(engineerOrdinals, a.engineerId()), k -> new ArrayList<>())
+                    .add(new Node<>(a.id(), ref, null, null));
+            projects.computeIfAbsent(ordinal(projectOrdinals, a.projectId()), k -> new ArrayList<>())
+                    .add(new Node<>(a.id(), ref, null, null));
+        }
+        Version previous = current.get();
+        if (after != previous.number) {
+            for (int i = 0; i < HISTORY; i++) {
+                history.set(i, null);
+            }
+        }
+        Version version = new Version(Math.max(previous.number, after) + 1, Instant.now(), sorted.size(),
+                build(all), table(engineers, engineerOrdinals.size()), table(projects, projectOrdinals.size()));
+        current.set(version);
+        history.set((int) (version.number % HISTORY), version);
+    }
+
+    /**
+     * Publishes a new version with {@code allocations} added, or replacing the allocations with the
+     * same ids, as the store now holds them. An allocation's engineer and project never change.
+     */
+    void publish(List<Allocation> allocations) {
+        int count = allocations.size();
+        int[] engineers = new int[count];
+        int[] projects = new int[count];
+        List<R> references = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Allocation allocation = allocations.get(i);
+            engineers[i] = ordinal(engineerOrdinals, allocation.engineerId());
+            projects[i] = ordinal(projectOrdinals, allocation.projectId());
+            references.add(reference.apply(allocation.id()));
+        }
+
+        Version base;
+        Version next;
+        do {
+            base = current.get();
+            Node<R>[][] byEngineer = copyTop(base.byEngineer, engineerOrdinals.size());
+            Node<R>[][] byProject = copyTop(base.byProject, projectOrdinals.size());
+            boolean[] engineerChunksCopied = new boolean[byEngineer.length];
+            boolean[] projectChunksCopied = new boolean[byProject.length];
+            Node<R> all = base.all;
+            int size = base.size;
+            for (int i = 0; i < count; i++) {
+                String id = allocations.get(i).id();
+                if (find(all, id) == null) {
+                    size++;
+                }
+                all = insert(all, id, references.get(i));
+                upsert(byEngineer, engineerChunksCopied, engineers[i], id, references.get(i));
+                upsert(byProject, projectChunksCopied, projects[i], id, references.get(i));
+            }
+            next = new Version(base.number + 1, Instant.now(), size, all, byEngineer, byProject);
+        } while (!current.compareAndSet(base, next));
+        history.set((int) (next.number % HISTORY), next);
+    }
+
+    // --- Internals ---
+
+    private Node<R> lookup(Node<R>[][] table, Map<String, Integer> ordinals, String key) {
+        Integer ordinal = key == null ? null : ordinals.get(key);
+        if (ordinal == null || (ordinal >>> CHUNK_BITS) >= table.length) {
+            return null;
+        }
+        Node<R>[] chunk = table[ordinal >>> CHUNK_BITS];
+        return chunk == null ? null : chunk[ordinal & CHUNK_MASK];
+    }
+
+    private static int ordinal(Map<String, Integer> ordinals, String key) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (ordinals) {
+            return ordinals.computeIfAbsent(key, k -> ordinals.size());
+        }
+    }
+
+    private static <R> Node<R>[][] copyTop(Node<R>[][] top, int ordinalCount) {
+        int chunks = (ordinalCount + CHUNK_MASK) >>> CHUNK_BITS;
+        return Arrays.copyOf(top, Math.max(top.length, chunks));
+    }
+
+    private static <R> void upsert(Node<R>[][] table, boolean[] chunkCopied, int ordinal, String id, R reference) {
+        int chunkIndex = ordinal >>> CHUNK_BITS;
+        if (!chunkCopied[chunkIndex]) {
+            Node<R>[] chunk = table[chunkIndex];
+            table[chunkIndex] = chunk == null ? chunk() : chunk.clone();
+            chunkCopied[chunkIndex] = true;
+        }
+        Node<R>[] chunk = table[chunkIndex];
+        chunk[ordinal & CHUNK_MASK] = insert(chunk[ordinal & CHUNK_MASK], id, reference);
+    }
+
+    private static <R> Node<R> find(Node<R> node, String id) {
+        while (node != null) {
+            int order = id.compareTo(node.id);
+            if (order == 0) {
+                return node;
+            }
+            node = order < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    // The treap with id set to reference; only the nodes on the path to id are copied
+    private static <R> Node<R> insert(Node<R> node, String id, R reference) {
+        if (node == null) {
+            return new Node<>(id, reference, null, null);
+        }
+        int order = id.compareTo(node.id);
+        if (order == 0) {
+            return new Node<>(id, reference, node.left, node.right);
+        }
+        if (order < 0) {
+            Node<R> left = insert(node.left, id, reference);
+            if (left.priority > node.priority) {
+                return new Node<>(left.id, left.reference, left.left,
+                        new Node<>(node.id, node.reference, left.right, node.right));
+            }
+            return new Node<>(node.id, node.reference, left, node.right);
+        }
+        Node<R> right = insert(node.right, id, reference);
+        if (right.priority > node.priority) {
+            return new Node<>(right.id, right.reference,
+                    new Node<>(node.id, node.reference, node.left, right.left), right.right);
+        }
+        return new Node<>(node.id, node.reference, node.left, right);
+    }
+
+    // Treap of nodes sorted by id, built in one pass along its right spine
+    private static <R> Node<R> build(List<Node<R>> sorted) {
+        Deque<Node<R>> spine = new ArrayDeque<>();
+        for (Node<R> node : sorted) {
+            Node<R> below = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                below = spine.pop();
+            }
+            node.left = below;
+            if (!spine.isEmpty()) {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+        }
+        return spine.peekLast();
+    }
+
+    private static <R> Node<R>[][] table(Map<Integer, List<Node<R>>> groups, int ordinalCount) {
+        Node<R>[][] table = table((ordinalCount + CHUNK_MASK) >>> CHUNK_BITS);
+        groups.forEach((ordinal, nodes) -> {
+            Node<R>[] chunk = table[ordinal >>> CHUNK_BITS];
+            if (chunk == null) {
+                chunk = chunk();
+                table[ordinal >>> CHUNK_BITS] = chunk;
+            }
+            chunk[ordinal & CHUNK_MASK] = build(nodes);
+        });
+        return table;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Node<R>[][] table(int chunks) {
+        return (Node<R>[][]) new Node<?>[chunks][];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Node<R>[] chunk() {
+        return (Node<R>[]) new Node<?>[CHUNK_SIZE];
+    }
+
+    // Time-ordered ids arrive in ascending order, so priorities are a mixed hash rather than the raw one
+    private static int priority(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
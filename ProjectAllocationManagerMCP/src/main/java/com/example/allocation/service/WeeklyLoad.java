@@ -0,0 +1,121 @@
+package com.example.allocation.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Allocated percentage-days per calendar week (Monday to Sunday) for one engineer or project,
+ * kept up to date as allocations come and go.
+ * <p>
+ * Weeks are numbered from the Monday 1970-01-05. {@code values[i]} is the load of week
+ * {@code baseWeek + i}; every week after the array holds {@code tail}, the load of the
+ * open-ended allocations that have started by then. Adding an allocation touches only the weeks
+ * it covers inside the array, and reading a run of weeks is a straight array read, so a heatmap never
+ * rescans allocations. Dates are day-precision, like every allocation the service creates.
+ * <p>
+ * Thread-safe; every method holds the instance monitor.
+ */
+final class WeeklyLoad {
+
+    static final int DAYS_PER_WEEK = 7;
+    // Epoch day of the Monday that starts week 0
+    private static final long FIRST_MONDAY = 4;
+
+    private int baseWeek;
+    private int[] values = new int[0];
+    private int tail;
+
+    synchronized void add(LocalDateTime start, LocalDateTime end, int percentage) {
+        apply(start, end, percentage);
+    }
+
+    synchronized void remove(LocalDateTime start, LocalDateTime end, int percentage) {
+        apply(start, end, -percentage);
+    }
+
+    /**
+     * Percentage-days of each of the {@code count} weeks starting at week {@code fromWeek}.
+     */
+    synchronized int[] read(int fromWeek, int count) {
+        int[] result = new int[count];
+        int limit = baseWeek + values.length;
+        for (int i = 0; i < count; i++) {
+            int week = fromWeek + i;
+            if (week >= limit) {
+                Arrays.fill(result, i, count, tail);
+                break;
+            }
+            if (week >= baseWeek) {
+                result[i] = values[week - baseWeek];
+            }
+        }
+        return result;
+    }
+
+    static int weekOf(LocalDate date) {
+        return weekOfDay(date.toEpochDay());
+    }
+
+    static LocalDate mondayOf(int week) {
+        return LocalDate.ofEpochDay(FIRST_MONDAY + (long) week * DAYS_PER_WEEK);
+    }
+
+    // --- Internals ---
+
+    private void apply(LocalDateTime start, LocalDateTime end, int percentage) {
+        long firstDay = start.toLocalDate().toEpochDay();
+        long lastDay = end == null ? Long.MAX_VALUE : end.toLocalDate().toEpochDay(); // exclusive
+        if (lastDay <= firstDay) {
+            return;
+        }
+        int firstWeek = weekOfDay(firstDay);
+        int lastWeek = end == null ? firstWeek : weekOfDay(lastDay - 1);
+        ensureCovers(firstWeek, lastWeek);
+
+        for (int week = firstWeek; week <= lastWeek; week++) {
+            values[week - baseWeek] += percentage * daysInWeek(week, firstDay, lastDay);
+        }
+        if (end == null) {
+            // Every later week is fully covered, including the ones the array does not reach yet
+            for (int i = lastWeek + 1 - baseWeek; i < values.length; i++) {
+                values[i] += percentage * DAYS_PER_WEEK;
+            }
+            tail += percentage * DAYS_PER_WEEK;
+        }
+    }
+
+    private void ensureCovers(int firstWeek, int lastWeek) {
+        if (values.length == 0) {
+            baseWeek = firstWeek;
+            values = new int[lastWeek - firstWeek + 1];
+            Arrays.fill(values, tail);
+            return;
+        }
+        if (firstWeek < baseWeek) {
+            // Weeks before the array only ever held closed allocations, which never reached them
+            int shift = baseWeek - firstWeek;
+            int[] grown = new int[values.length + shift];
+            System.arraycopy(values, 0, grown, shift, values.length);
+            values = grown;
+            baseWeek = firstWeek;
+        }
+        int needed = lastWeek - baseWeek + 1;
+        if (needed > values.length) {
+            int oldLength = values.length;
+            values = Arrays.copyOf(values, Math.max(needed, oldLength + oldLength / 2));
+            Arrays.fill(values, oldLength, values.length, tail);
+        }
+    }
+
+    private static int daysInWeek(int week, long firstDay, long lastDay) {
+        long weekStart = FIRST_MONDAY + (long) week * DAYS_PER_WEEK;
+        long from = Math.max(weekStart, firstDay);
+        long to = Math.min(weekStart + DAYS_PER_WEEK, lastDay);
+        return (int) (to - from);
+    }
+
+    private static int weekOfDay(long epochDay) {
+        return Math.toIntExact(Math.floorDiv(epochDay - FIRST_MONDAY, DAYS_PER_WEEK));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.model.AllocationRequest;
+import com.example.allocation.service.AllocationService;
+import com.example.allocation.service.AllocationService.BatchAllocationResult;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class AllocateEngineersBatchTool {
+
+    private final AllocationService allocationService;
+
+    public AllocateEngineersBatchTool(AllocationService allocationService) {
+        this.allocationService = allocationService;
+    }
+
+    @Tool(description = "Allocate engineers to projects in one all-or-nothing batch. "
+            + "Each request is checked against existing allocations and the other requests in the batch; "
+            + "if any request fails, nothing is created and every conflict is listed.")
+    public BatchAllocationResult AllocateEngineersBatch(
+            @ToolParam(description = "Allocations to create. Dates are yyyy-MM-dd; startDate defaults to today "
+                    + "and an empty endDate means indefinite.") List<AllocationRequest> allocations) {
+        return allocationService.allocateEngineers(allocations);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.model.AuditReport;
+import com.example.allocation.service.AllocationService;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AuditAllocationsTool {
+
+    private final AllocationService allocationService;
+
+    public AuditAllocationsTool(AllocationService allocationService) {
+        this.allocationService = allocationService;
+    }
+
+    @Tool(description = "Check every allocation for rule violations: over 100% allocation, overlapping "
+            + "allocations to the same project, invalid dates or percentages, unknown engineers or projects")
+    public AuditReport AuditAllocations(
+            @ToolParam(description = "Maximum number of violations to return (default 100); the total "
+                    + "count is always reported.", required = false) Integer limit) {
+        return allocationService.auditAllocations(limit);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.model.Engineer;
+import com.example.allocation.model.Page;
+import com.example.allocation.model.Project;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Trims listing results down to the fields a client asked for, so pages stay small.
+ * <p>
+ * Listing tools return {@link #project} and name this class as their {@code resultConverter}.
+ * The fields are dropped while the page is written: engineers, projects and allocations carry a
+ * Jackson filter on this converter's mapper, so every item is serialized once, straight from the
+ * record, with no intermediate map.
+ */
+public final class FieldProjection implements ToolCallResultConverter {
+
+    private static final String FILTER = "fields";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .addMixIn(Engineer.class, Filtered.class)
+            .addMixIn(Project.class, Filtered.class)
+            .addMixIn(Allocation.class, Filtered.class);
+    private static final SimpleFilterProvider ALL_FIELDS = new SimpleFilterProvider()
+            .addFilter(FILTER, SimpleBeanPropertyFilter.serializeAll());
+    private static final ToolCallResultConverter DEFAULT = new DefaultToolCallResultConverter();
+
+    @JsonFilter(FILTER)
+    private interface Filtered {
+    }
+
+    /**
+     * A page to be written with only {@code fields}, or with every field if that is empty.
+     */
+    public record Projected<T>(Page<T> page, Set<String> fields) {
+    }
+
+    // Instantiated by Spring AI for every tool naming it as its result converter
+    public FieldProjection() {
+    }
+
+    /**
+     * The page, to be written with only {@code fields} (unknown names are ignored); all fields if
+     * {@code fields} is null or empty.
+     */
+    static <T> Projected<T> project(Page<T> page, List<String> fields) {
+        return new Projected<>(page, fields == null ? Set.of() : Set.copyOf(fields));
+    }
+
+    @Override
+    public String convert(Object result, Type returnType) {
+        if (!(result instanceof Projected<?> projected)) {
+            return DEFAULT.convert(result, returnType);
+        }
+        SimpleFilterProvider filters = projected.fields().isEmpty() ? ALL_FIELDS : new SimpleFilterProvider()
+                .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(projected.fields()));
+        try {
+            return OBJECT_MAPPER.writer(filters).writeValueAsString(projected.page());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize the listing page", e);
+        }
+    }
+}
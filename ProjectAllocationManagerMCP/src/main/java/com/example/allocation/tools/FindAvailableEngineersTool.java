@@ -0,0 +1,33 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.service.AllocationService;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class FindAvailableEngineersTool {
+
+    private final AllocationService allocationService;
+
+    public FindAvailableEngineersTool(AllocationService allocationService) {
+        this.allocationService = allocationService;
+    }
+
+    @Tool(description = "Find the least-loaded engineers that have all of the given skills during a date window, "
+            + "best matches first")
+    public List<AllocationService.EngineerMatch> FindAvailableEngineers(
+            @ToolParam(description = "Skills the engineer must have, all of them (case-insensitive).",
+                    required = false) List<String> skills,
+            @ToolParam(description = "Window start (yyyy-MM-dd).") String startDate,
+            @ToolParam(description = "Window end (yyyy-MM-dd, exclusive); open-ended if empty.",
+                    required = false) String endDate,
+            @ToolParam(description = "Only engineers whose peak load in the window is below this percentage "
+                    + "(default 100).", required = false) Integer maxLoad,
+            @ToolParam(description = "Maximum number of engineers to return, 1-200 (default 10).",
+                    required = false) Integer limit) {
+        return allocationService.findAvailableEngineers(skills, startDate, endDate, maxLoad, limit);
+    }
+}
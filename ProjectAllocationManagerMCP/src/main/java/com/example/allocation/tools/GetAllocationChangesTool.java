@@ -0,0 +1,27 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.model.AllocationChanges;
+import com.example.allocation.service.AllocationService;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GetAllocationChangesTool {
+
+    private final AllocationService allocationService;
+
+    public GetAllocationChangesTool(AllocationService allocationService) {
+        this.allocationService = allocationService;
+    }
+
+    @Tool(description = "Get allocation changes (created, updated, capacity changed) after a sequence number, "
+            + "so clients can pull deltas instead of re-listing. If truncated is true, re-list before continuing")
+    public AllocationChanges GetAllocationChanges(
+            @ToolParam(description = "lastSequence from the previous call; 0 or empty for the oldest retained change.",
+                    required = false) Long sinceSequence,
+            @ToolParam(description = "Maximum number of changes to return, 1-1000 (default 100).",
+                    required = false) Integer limit) {
+        return allocationService.getChangesSince(sinceSequence, limit);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.model.UtilizationHeatmap;
+import com.example.allocation.service.AllocationService;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class GetCapacityHeatmapTool {
+
+    private final AllocationService allocationService;
+
+    public GetCapacityHeatmapTool(AllocationService allocationService) {
+        this.allocationService = allocationService;
+    }
+
+    @Tool(description = "Average weekly utilization (percent) per engineer, one page of engineers at a time")
+    public UtilizationHeatmap GetCapacityHeatmap(
+            @ToolParam(description = "Only engineers having all of these skills (case-insensitive).",
+                    required = false) List<String> skills,
+            @ToolParam(description = "A date (yyyy-MM-dd) in the first week; defaults to the current week.",
+                    required = false) String from,
+            @ToolParam(description = "Number of weeks, 1-104 (default 26).", required = false) Integer weeks,
+            @ToolParam(description = "nextCursor from the previous page; empty for the first page.",
+                    required = false) String cursor,
+            @ToolParam(description = "Engineers per page, 1-200 (default 50).", required = false) Integer limit) {
+        return allocationService.getCapacityHeatmap(skills, from, weeks, cursor, limit);
+    }
+
+    @Tool(description = "Weekly staffing per project as the summed allocation percentage (250 = 2.5 full-time "
+            + "engineers), one page of projects at a time")
+    public UtilizationHeatmap GetProjectStaffing(
+            @ToolParam(description = "Only projects with this status, e.g. active or planning.",
+                    required = false) String status,
+            @ToolParam(description = "A date (yyyy-MM-dd) in the first week; defaults to the current week.",
+                    required = false) String from,
+            @ToolParam(description = "Number of weeks, 1-104 (default 26).", required = false) Integer weeks,
+            @ToolParam(description = "nextCursor from the previous page; empty for the first page.",
+                    required = false) String cursor,
+            @ToolParam(description = "Projects per page, 1-200 (default 50).", required = false) Integer limit) {
+        return allocationService.getProjectStaffing(status, from, weeks, cursor, limit);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.service.AllocationService;
+import com.example.allocation.model.Allocation;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ListAllocationsTool {
+
+    private final AllocationService allocationService;
+
+    public ListAllocationsTool(AllocationService allocationService) {
+        this.allocationService = allocationService;
+    }
+
+    @Tool(description = "List allocations one page at a time, optionally filtered by engineer, project "
+            + "and a date window",
+            resultConverter = FieldProjection.class)
+    public FieldProjection.Projected<Allocation> ListAllocations(
+            @ToolParam(description = "Only allocations of this engineer ID.", required = false) String engineerId,
+            @ToolParam(description = "Only allocations to this project ID.", required = false) String projectId,
+            @ToolParam(description = "Window start (yyyy-MM-dd); only allocations active on or after it.",
+                    required = false) String from,
+            @ToolParam(description = "Window end (yyyy-MM-dd, exclusive); only allocations starting before it.",
+                    required = false) String to,
+            @ToolParam(description = "Fields to return (id, engineerId, projectId, allocationPercentage, "
+                    + "startDate, endDate); all fields if empty.", required = false) List<String> fields,
+            @ToolParam(description = "nextCursor from the previous page; empty for the first page.",
+                    required = false) String cursor,
+            @ToolParam(description = "Page size, 1-200 (default 50).", required = false) Integer limit,
+            @ToolParam(description = "State version to read (see ListStateVersions); the current state if empty.",
+                    required = false) Long version) {
+        return FieldProjection.project(
+                allocationService.listAllocations(engineerId, projectId, from, to, cursor, limit, version), fields);
+    }
+}
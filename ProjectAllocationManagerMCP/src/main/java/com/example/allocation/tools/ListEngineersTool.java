@@ -1,8 +1,9 @@
 package com.example.allocation.tools;
 
-import com.example.allocation.model.Engineer;
 import com.example.allocation.service.AllocationService;
+import com.example.allocation.model.Engineer;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -16,8 +17,18 @@ public class ListEngineersTool {
         this.allocationService = allocationService;
     }
 
-    @Tool(description = "List all engineers in the system")
-    public List<Engineer> ListEngineers() {
-        return allocationService.getEngineers();
+    @Tool(description = "List engineers in the system, one page at a time, optionally filtered by role or skill",
+            resultConverter = FieldProjection.class)
+    public FieldProjection.Projected<Engineer> ListEngineers(
+            @ToolParam(description = "Only engineers whose role contains this text (case-insensitive).",
+                    required = false) String role,
+            @ToolParam(description = "Only engineers with this skill (case-insensitive).",
+                    required = false) String skill,
+            @ToolParam(description = "Fields to return (id, name, role, skills); all fields if empty.",
+                    required = false) List<String> fields,
+            @ToolParam(description = "nextCursor from the previous page; empty for the first page.",
+                    required = false) String cursor,
+            @ToolParam(description = "Page size, 1-200 (default 50).", required = false) Integer limit) {
+        return FieldProjection.project(allocationService.listEngineers(role, skill, cursor, limit), fields);
     }
 }
@@ -1,8 +1,9 @@
 package com.example.allocation.tools;
 
-import com.example.allocation.model.Project;
 import com.example.allocation.service.AllocationService;
+import com.example.allocation.model.Project;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -16,8 +17,16 @@ public class ListProjectsTool {
         this.allocationService = allocationService;
     }
 
-    @Tool(description = "List all projects in the system")
-    public List<Project> ListProjects() {
-        return allocationService.getProjects();
+    @Tool(description = "List projects in the system, one page at a time, optionally filtered by status",
+            resultConverter = FieldProjection.class)
+    public FieldProjection.Projected<Project> ListProjects(
+            @ToolParam(description = "Only projects with this status, e.g. active or planning.",
+                    required = false) String status,
+            @ToolParam(description = "Fields to return (id, name, description, status); all fields if empty.",
+                    required = false) List<String> fields,
+            @ToolParam(description = "nextCursor from the previous page; empty for the first page.",
+                    required = false) String cursor,
+            @ToolParam(description = "Page size, 1-200 (default 50).", required = false) Integer limit) {
+        return FieldProjection.project(allocationService.listProjects(status, cursor, limit), fields);
     }
 }
@@ -0,0 +1,27 @@
+package com.example.allocation.tools;
+
+import com.example.allocation.model.StateVersion;
+import com.example.allocation.service.AllocationService;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ListStateVersionsTool {
+
+    private final AllocationService allocationService;
+
+    public ListStateVersionsTool(AllocationService allocationService) {
+        this.allocationService = allocationService;
+    }
+
+    @Tool(description = "List recent versions of the allocation state, newest first. Pass a version to "
+            + "ListAllocations to see allocations as they were at that point")
+    public List<StateVersion> ListStateVersions(
+            @ToolParam(description = "Maximum number of versions to return, 1-200 (default 50).",
+                    required = false) Integer limit) {
+        return allocationService.getStateVersions(limit);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.allocation.persistence;
+
+import com.example.allocation.model.Allocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AllocationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornFirstRecordOfSegmentIsCutOffSoLaterAppendsSurviveRestarts() throws IOException {
+        try (AllocationJournal journal = open()) {
+            journal.recover(allocation -> {
+            });
+            journal.append(allocation("alloc-1"));
+        }
+        // Crash while writing the first record of the segment opened by the next start
+        Path nextSegment = directory.resolve(String.format("journal-%020d.log", 2));
+        Files.writeString(nextSegment, "{\"seq\":2,\"allocation\":{\"id\":\"torn", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE_NEW);
+
+        try (AllocationJournal journal = open()) {
+            assertEquals(List.of("alloc-1"), recover(journal));
+            journal.append(allocation("alloc-2"));
+        }
+        try (AllocationJournal journal = open()) {
+            assertEquals(List.of("alloc-1", "alloc-2"), recover(journal));
+            journal.append(allocation("alloc-3"));
+        }
+        try (AllocationJournal journal = open()) {
+            assertEquals(List.of("alloc-1", "alloc-2", "alloc-3"), recover(journal));
+        }
+    }
+
+    @Test
+    void unparsableLastLineIsTreatedAsTorn() throws IOException {
+        try (AllocationJournal journal = open()) {
+            journal.recover(allocation -> {
+            });
+            journal.append(allocation("alloc-1"));
+        }
+        Files.writeString(onlySegment(), "{\"seq\":2,\"allo\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (AllocationJournal journal = open()) {
+            assertEquals(List.of("alloc-1"), recover(journal));
+            journal.append(allocation("alloc-2"));
+        }
+        try (AllocationJournal journal = open()) {
+            assertEquals(List.of("alloc-1", "alloc-2"), recover(journal));
+        }
+    }
+
+    @Test
+    void corruptRecordBeforeTheLastLineFailsRecovery() throws IOException {
+        try (AllocationJournal journal = open()) {
+            journal.recover(allocation -> {
+            });
+            journal.append(allocation("alloc-1"));
+        }
+        Path segment = onlySegment();
+        String good = Files.readString(segment, StandardCharsets.UTF_8);
+        Files.writeString(segment, "not json\n" + good, StandardCharsets.UTF_8);
+
+        try (AllocationJournal journal = open()) {
+            assertThrows(IOException.class, () -> journal.recover(allocation -> {
+            }));
+        }
+    }
+
+    @Test
+    void writesResumeOnceAFailedBatchIsCutOff() throws IOException {
+        ObjectMapper failing = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) throws JsonProcessingException {
+                if (value instanceof AllocationJournal.Entry entry && entry.allocation() != null
+                        && entry.allocation().id().equals("alloc-fails")) {
+                    throw new JsonMappingException(null, "No space left on device");
+                }
+                return super.writeValueAsString(value);
+            }
+        };
+        try (AllocationJournal journal = new AllocationJournal(directory, failing, 1000)) {
+            journal.recover(allocation -> {
+            });
+            journal.append(allocation("alloc-1"));
+            assertThrows(IOException.class, () -> journal.append(allocation("alloc-fails")));
+            // What a write that failed halfway leaves behind: a record that was never acknowledged
+            Files.writeString(onlySegment(), "{\"seq\":2,\"allocation\":{\"id\":\"alloc-lost\"}}\n{\"seq\":3",
+                    StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            assertEquals(2, journal.append(allocation("alloc-2")));
+            assertEquals(2, journal.rotate());
+        }
+        try (AllocationJournal journal = open()) {
+            assertEquals(List.of("alloc-1", "alloc-2"), recover(journal));
+        }
+    }
+
+    private AllocationJournal open() {
+        return new AllocationJournal(directory, new ObjectMapper(), 1000);
+    }
+
+    private static List<String> recover(AllocationJournal journal) throws IOException {
+        List<String> ids = new ArrayList<>();
+        journal.recover(allocation -> ids.add(allocation.id()));
+        return ids;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().startsWith("journal-")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private static Allocation allocation(String id) {
+        return new Allocation(id, "eng-001", "proj-001", 50,
+                LocalDateTime.of(2030, 1, 1, 0, 0), LocalDateTime.of(2030, 2, 1, 0, 0));
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.model.AllocationRequest;
+import com.example.allocation.model.Engineer;
+import com.example.allocation.model.Project;
+import com.example.allocation.persistence.BinarySnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers the write paths from many threads on a few engineers and overlapping dates, then checks
+ * that no engineer ended up over 100% and that every index still agrees with the stored allocations.
+ */
+class AllocationServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 400;
+    private static final int ENGINEERS = 4;
+    private static final int PROJECTS = 6;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final int DAYS = 120;
+
+    @TempDir
+    Path dataFolder;
+
+    @Test
+    @Timeout(120)
+    void concurrentWritesNeverOverAllocateWithIndexedStore() throws Exception {
+        stress("indexed");
+    }
+
+    @Test
+    @Timeout(120)
+    void concurrentWritesNeverOverAllocateWithColumnarStore() throws Exception {
+        stress("columnar");
+    }
+
+    private void stress(String storeType) throws Exception {
+        writeSeedData();
+        AllocationService service = open(storeType);
+        List<String> ids = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger created = new AtomicInteger();
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                workers.add(threads.submit(() -> {
+                    start.await();
+                    write(service, new Random(seed), ids, created);
+                    return null;
+                }));
+            }
+            // Searches run alongside the writers; they read published versions and take no write lock
+            AtomicBoolean writing = new AtomicBoolean(true);
+            Future<Integer> searcher = threads.submit(() -> {
+                start.await();
+                return search(service, writing);
+            });
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            writing.set(false);
+            assertTrue(searcher.get() > 0, "no search completed while writing");
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertTrue(created.get() > 0, "no allocation was ever accepted");
+        assertEquals(created.get(), service.getAllocations().size(), "published allocations");
+        assertConsistent(service);
+
+        // The journal replays to the same state
+        List<Allocation> before = service.getAllocations();
+        service.close();
+        AllocationService reopened = open(storeType);
+        try {
+            assertEquals(new HashSet<>(before), new HashSet<>(reopened.getAllocations()), "allocations after restart");
+            assertConsistent(reopened);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static void write(AllocationService service, Random random, List<String> ids, AtomicInteger created) {
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int choice = random.nextInt(10);
+            if (choice < 4) {
+                String[] dates = dates(random);
+                AllocationService.AllocationResult result = service.allocateEngineer(engineerId(random.nextInt(ENGINEERS)),
+                        projectId(random.nextInt(PROJECTS)), percentage(random), dates[0], dates[1]);
+                if (result.success()) {
+                    ids.add(result.allocation().id());
+                    created.incrementAndGet();
+                }
+            } else if (choice < 7) {
+                String id;
+                synchronized (ids) {
+                    if (ids.isEmpty()) {
+                        continue;
+                    }
+                    id = ids.get(random.nextInt(ids.size()));
+                }
+                String[] dates = dates(random);
+                service.updateAllocation(id, percentage(random), dates[0], dates[1]);
+            } else {
+                List<AllocationRequest> requests = new ArrayList<>();
+                int count = 2 + random.nextInt(3);
+                for (int r = 0; r < count; r++) {
+                    String[] dates = dates(random);
+                    requests.add(new AllocationRequest(engineerId(random.nextInt(ENGINEERS)),
+                            projectId(random.nextInt(PROJECTS)), percentage(random), dates[0], dates[1]));
+                }
+                AllocationService.BatchAllocationResult result = service.allocateEngineers(requests);
+                if (result.success()) {
+                    result.allocations().forEach(a -> ids.add(a.id()));
+                    created.addAndGet(result.allocations().size());
+                }
+            }
+        }
+    }
+
+    private static int search(AllocationService service, AtomicBoolean writing) {
+        int searches = 0;
+        while (writing.get()) {
+            List<AllocationService.EngineerMatch> matches = service.findAvailableEngineers(List.of("Java"),
+                    FIRST_DAY.plusDays(searches % DAYS).toString(), null, 101, ENGINEERS);
+            assertEquals(ENGINEERS, matches.size(), "every engineer is at most 100% allocated");
+            for (int i = 0; i < matches.size(); i++) {
+                assertTrue(matches.get(i).peakLoad() <= 100, matches.get(i).toString());
+                assertTrue(i == 0 || matches.get(i - 1).peakLoad() <= matches.get(i).peakLoad(), "ranked by load");
+            }
+            searches++;
+        }
+        return searches;
+    }
+
+    private static void assertConsistent(AllocationService service) {
+        List<Allocation> all = service.getAllocations();
+        for (Allocation allocation : all) {
+            assertEquals(allocation, service.getAllocationById(allocation.id()), "store and published state");
+        }
+        Set<Allocation> published = new HashSet<>(all);
+        int fromWeek = WeeklyLoad.weekOf(FIRST_DAY) - 1;
+        int weeks = DAYS / WeeklyLoad.DAYS_PER_WEEK + 10;
+        LocalDateTime from = FIRST_DAY.minusDays(1).atStartOfDay();
+
+        Set<Allocation> byEngineer = new HashSet<>();
+        for (int e = 0; e < ENGINEERS; e++) {
+            String engineerId = engineerId(e);
+            List<Allocation> allocations = service.getAllocationsByEngineerId(engineerId);
+            byEngineer.addAll(allocations);
+            EngineerTimeline expectedTimeline = new EngineerTimeline();
+            WeeklyLoad expectedLoad = new WeeklyLoad();
+            for (Allocation a : allocations) {
+                expectedTimeline.add(a.startDate(), a.endDate(), a.allocationPercentage());
+                expectedLoad.add(a.startDate(), a.endDate(), a.allocationPercentage());
+            }
+
+            int peak = expectedTimeline.peakLoad(from, null);
+            assertTrue(peak <= 100, engineerId + " is allocated " + peak + "%");
+
+            EngineerTimeline timeline = service.timeline(engineerId);
+            if (allocations.isEmpty()) {
+                assertEquals(null, timeline, "timeline of " + engineerId);
+            } else {
+                assertEquals(peak, timeline.peakLoad(from, null), "peak load of " + engineerId);
+                for (int day = -1; day <= DAYS + 60; day++) {
+                    LocalDateTime instant = FIRST_DAY.plusDays(day).atStartOfDay();
+                    int load = expectedTimeline.peakLoad(instant, instant.plusDays(1));
+                    assertEquals(load, timeline.peakLoad(instant, instant.plusDays(1)),
+                            "load of " + engineerId + " on " + instant);
+                    assertEquals(load, EngineerTimeline.peakLoad(allocations, instant, instant.plusDays(1)),
+                            "swept load of " + engineerId + " on " + instant);
+                    assertEquals(expectedTimeline.peakLoad(instant, instant.plusDays(30)),
+                            EngineerTimeline.peakLoad(allocations, instant, instant.plusDays(30)),
+                            "swept peak of " + engineerId + " in the month from " + instant);
+                }
+            }
+            WeeklyLoad weeklyLoad = service.engineerWeeklyLoad(engineerId);
+            if (weeklyLoad != null) {
+                assertArrayEquals(expectedLoad.read(fromWeek, weeks), weeklyLoad.read(fromWeek, weeks),
+                        "weekly load of " + engineerId);
+            }
+        }
+        assertEquals(published, byEngineer, "allocations by engineer");
+
+        Set<Allocation> byProject = new HashSet<>();
+        for (int p = 0; p < PROJECTS; p++) {
+            String projectId = projectId(p);
+            List<Allocation> allocations = service.getAllocationsByProjectId(projectId);
+            byProject.addAll(allocations);
+            WeeklyLoad expectedLoad = new WeeklyLoad();
+            allocations.forEach(a -> expectedLoad.add(a.startDate(), a.endDate(), a.allocationPercentage()));
+            WeeklyLoad weeklyLoad = service.projectWeeklyLoad(projectId);
+            if (weeklyLoad != null) {
+                assertArrayEquals(expectedLoad.read(fromWeek, weeks), weeklyLoad.read(fromWeek, weeks),
+                        "weekly load of " + projectId);
+            }
+        }
+        assertEquals(published, byProject, "allocations by project");
+    }
+
+    private AllocationService open(String storeType) throws IOException {
+        AllocationService service = new AllocationService(dataFolder.toString(), storeType, false,
+                new TimeOrderedIdGenerator());
+        service.loadData();
+        return service;
+    }
+
+    // Engineers and projects only, so the service starts without the classpath seed allocations
+    private void writeSeedData() throws IOException {
+        List<Engineer> engineers = IntStream.range(0, ENGINEERS)
+                .mapToObj(e -> new Engineer(engineerId(e), "Engineer " + e, "Developer", List.of("Java")))
+                .collect(Collectors.toList());
+        List<Project> projects = IntStream.range(0, PROJECTS)
+                .mapToObj(p -> new Project(projectId(p), "Project " + p, "", "Active"))
+                .collect(Collectors.toList());
+        BinarySnapshot.write(dataFolder.resolve("snapshot.bin"), 0, engineers, projects, List.of());
+    }
+
+    // Short, overlapping ranges inside a few months; one in ten is open-ended
+    private static String[] dates(Random random) {
+        LocalDate start = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        String end = random.nextInt(10) == 0 ? null : start.plusDays(1 + random.nextInt(45)).toString();
+        return new String[] {start.toString(), end};
+    }
+
+    private static int percentage(Random random) {
+        return 10 * (1 + random.nextInt(6));
+    }
+
+    private static String engineerId(int index) {
+        return "eng-" + index;
+    }
+
+    private static String projectId(int index) {
+        return "proj-" + index;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+import com.example.allocation.model.Engineer;
+import com.example.allocation.model.Page;
+import com.example.allocation.model.Project;
+import com.example.allocation.persistence.BinarySnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AllocationServicePagingTest {
+
+    private static final int ENGINEERS = 30;
+    private static final int PROJECTS = 3;
+
+    @TempDir
+    Path dataFolder;
+
+    private AllocationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<Engineer> engineers = IntStream.range(0, ENGINEERS)
+                .mapToObj(e -> new Engineer("eng-" + e, "Engineer " + e, e % 2 == 0 ? "Developer" : "Tester",
+                        e % 3 == 0 ? List.of("Java", "Go") : List.of("Java")))
+                .collect(Collectors.toList());
+        List<Project> projects = IntStream.range(0, PROJECTS)
+                .mapToObj(p -> new Project("proj-" + p, "Project " + p, "", "Active"))
+                .collect(Collectors.toList());
+        BinarySnapshot.write(dataFolder.resolve("snapshot.bin"), 0, engineers, projects, List.of());
+        service = new AllocationService(dataFolder.toString(), "indexed", false, new TimeOrderedIdGenerator());
+        service.loadData();
+
+        // Each engineer gets one allocation per project, in consecutive months
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        for (int e = 0; e < ENGINEERS; e++) {
+            for (int p = 0; p < PROJECTS; p++) {
+                LocalDate from = start.plusMonths(p);
+                assertTrue(service.allocateEngineer("eng-" + e, "proj-" + p, 30,
+                        from.toString(), from.plusMonths(1).toString()).success());
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+    }
+
+    @Test
+    void engineerPagesVisitOnlyEngineersWithTheSkill() {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Engineer> page = service.listEngineers("developer", " go ", cursor, 2);
+            page.items().forEach(e -> ids.add(e.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(List.of("eng-0", "eng-6", "eng-12", "eng-18", "eng-24"), ids);
+
+        assertEquals(ENGINEERS, service.listEngineers(null, "JAVA", null, 200).items().size());
+        Page<Engineer> none = service.listEngineers(null, "Rust", null, 10);
+        assertEquals(List.of(), none.items());
+        assertNull(none.nextCursor());
+    }
+
+    @Test
+    void pagesCoverAllAllocationsInIdOrder() {
+        List<Allocation> expected = new ArrayList<>(service.getAllocations());
+        expected.sort(Comparator.comparing(Allocation::id));
+
+        assertEquals(expected, collect(null, null, null, null, 7));
+    }
+
+    @Test
+    void filteredPagesCoverEveryMatch() {
+        LocalDateTime february = LocalDate.of(2030, 2, 1).atStartOfDay();
+        List<Allocation> expected = service.getAllocations().stream()
+                .filter(a -> a.startDate().equals(february))
+                .sorted(Comparator.comparing(Allocation::id))
+                .collect(Collectors.toList());
+
+        assertEquals(ENGINEERS, expected.size());
+        assertEquals(expected, collect(null, null, "2030-02-01", "2030-03-01", 4));
+        assertEquals(expected, collect(null, "proj-1", null, null, 4));
+        assertEquals(expected.subList(0, 1), collect(expected.get(0).engineerId(), "proj-1", null, null, 1));
+    }
+
+    @Test
+    void positionCursorsOutsideTheListAreRejected() {
+        for (String position : List.of("-1", "31", "2147483647")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> service.listEngineers(null, null, cursor(position), 5));
+            assertTrue(e.getMessage().startsWith("Invalid cursor"), e.getMessage());
+        }
+        Page<Engineer> last = service.listEngineers(null, null, cursor("30"), 5);
+        assertEquals(0, last.items().size());
+        assertNull(last.nextCursor());
+    }
+
+    private List<Allocation> collect(String engineerId, String projectId, String from, String to, int limit) {
+        List<Allocation> result = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Allocation> page = service.listAllocations(engineerId, projectId, from, to, cursor, limit);
+            assertTrue(page.items().size() <= limit, "page larger than the limit");
+            result.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return result;
+    }
+
+    private static String cursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
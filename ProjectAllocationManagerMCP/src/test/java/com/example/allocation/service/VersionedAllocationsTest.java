@@ -0,0 +1,137 @@
+package com.example.allocation.service;
+
+import com.example.allocation.model.Allocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionedAllocationsTest {
+
+    @Test
+    void olderVersionsKeepTheirRecordsWithIndexedStore() {
+        olderVersionsKeepTheirRecords(AllocationStore.create("indexed"));
+    }
+
+    @Test
+    void olderVersionsKeepTheirRecordsWithColumnarStore() {
+        olderVersionsKeepTheirRecords(AllocationStore.create("columnar"));
+    }
+
+    @Test
+    void versionsListAllocationsInIdOrder() {
+        AllocationStore store = AllocationStore.create("columnar");
+        VersionedAllocations<?> versions = store.versions();
+        Random random = new Random(7);
+        List<Allocation> seed = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            seed.add(put(store, allocation("alloc-" + (100_000 + random.nextInt(900_000)) + "-" + i,
+                    "eng-" + (i % 7), i % 90 + 1)));
+        }
+        versions.reset(store.all());
+        for (int i = 0; i < 500; i++) {
+            // Alternately add allocations and update random existing ones
+            Allocation allocation;
+            if (i % 2 == 0) {
+                allocation = allocation("alloc-" + (100_000 + random.nextInt(900_000)) + "+" + i, "eng-" + (i % 5), 10);
+            } else {
+                Allocation existing = seed.get(random.nextInt(seed.size()));
+                allocation = allocation(existing.id(), existing.engineerId(), 20 + i % 50);
+            }
+            versions.publish(List.of(put(store, allocation)));
+        }
+
+        List<Allocation> expected = store.all();
+        expected.sort(Comparator.comparing(Allocation::id));
+        assertEquals(expected, versions.current().all());
+        assertEquals(expected.size(), versions.current().size());
+        for (int e = 0; e < 7; e++) {
+            List<Allocation> byEngineer = new ArrayList<>(store.byEngineer("eng-" + e));
+            byEngineer.sort(Comparator.comparing(Allocation::id));
+            assertEquals(byEngineer, versions.current().byEngineer("eng-" + e));
+        }
+    }
+
+    @Test
+    void compactionReclaimsReplacedRowsWithoutChangingOlderVersions() {
+        ColumnarAllocationStore store = new ColumnarAllocationStore();
+        VersionedAllocations<?> versions = store.versions();
+        List<Allocation> seed = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            seed.add(put(store, allocation("alloc-" + (1000 + i), "eng-" + (i % 7), 10)));
+        }
+        versions.reset(seed);
+        for (int i = 0; i < 20; i++) {
+            versions.publish(List.of(put(store, allocation("alloc-" + (1000 + i), "eng-" + (i % 7), 30))));
+        }
+        assertFalse(store.compact(), "20 of 120 rows replaced");
+
+        for (int i = 20; i < 40; i++) {
+            versions.publish(List.of(put(store, allocation("alloc-" + (1000 + i), "eng-" + (i % 7), 30))));
+        }
+        VersionedAllocations<?>.Version before = versions.current();
+        List<Allocation> expected = before.all();
+        assertEquals(140, store.rowCount());
+        assertTrue(store.compact());
+        assertEquals(100, store.rowCount());
+
+        // The old history still resolves against the columns it was created on
+        assertEquals(expected, before.all());
+        assertEquals(seed.subList(0, 1), versions.at(1).byEngineer("eng-0").subList(0, 1));
+
+        VersionedAllocations<?> compacted = store.versions();
+        compacted.reset(store.all(), before.number());
+        assertEquals(before.number() + 1, compacted.current().number());
+        assertEquals(expected, compacted.current().all());
+        assertNull(compacted.at(0), "the new history starts at the reset");
+
+        Allocation updated = put(store, allocation("alloc-1050", "eng-1", 60));
+        compacted.publish(List.of(updated));
+        assertEquals(101, store.rowCount());
+        assertEquals(updated, store.get("alloc-1050"));
+        assertEquals(expected, before.all());
+        Allocation overlapping = store.findOverlapping("eng-1", "proj-1",
+                LocalDateTime.of(2030, 1, 15, 0, 0), LocalDateTime.of(2030, 1, 16, 0, 0), null);
+        assertEquals("eng-1", overlapping.engineerId());
+        assertEquals(store.get(overlapping.id()), overlapping);
+        List<Allocation> byEngineer = new ArrayList<>(store.byEngineer("eng-1"));
+        byEngineer.sort(Comparator.comparing(Allocation::id));
+        assertEquals(byEngineer, compacted.current().byEngineer("eng-1"));
+        assertEquals(100, store.all().size());
+    }
+
+    private static void olderVersionsKeepTheirRecords(AllocationStore store) {
+        VersionedAllocations<?> versions = store.versions();
+        versions.reset(List.of(put(store, allocation("alloc-1", "eng-1", 50))));
+        VersionedAllocations<?>.Version loaded = versions.current();
+
+        Allocation updated = put(store, allocation("alloc-1", "eng-1", 80));
+        Allocation added = put(store, allocation("alloc-2", "eng-1", 10));
+        versions.publish(List.of(updated, added));
+
+        assertEquals(List.of(allocation("alloc-1", "eng-1", 50)), loaded.all());
+        assertEquals(List.of(allocation("alloc-1", "eng-1", 50)), loaded.byProject("proj-1"));
+        assertEquals(1, loaded.size());
+        assertEquals(List.of(updated, added), versions.current().byEngineer("eng-1"));
+        assertEquals(2, versions.current().size());
+        assertEquals(List.of(updated, added), versions.at(loaded.number() + 1).all());
+    }
+
+    private static Allocation put(AllocationStore store, Allocation allocation) {
+        store.put(allocation);
+        return allocation;
+    }
+
+    private static Allocation allocation(String id, String engineerId, int percentage) {
+        return new Allocation(id, engineerId, "proj-1", percentage,
+                LocalDateTime.of(2030, 1, 1, 0, 0), LocalDateTime.of(2030, 2, 1, 0, 0));
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.weather;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.example.weather.WeatherService.Alert;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * All active US alerts, kept in memory by a background poller.
+ * <p>
+ * Every {@code weather.alerts.poll-interval} the poller fetches {@code /alerts/active} with
+ * {@code If-None-Match}/{@code If-Modified-Since}, so an unchanged feed costs a 304 and no parsing.
+ * A changed feed is indexed by state and by event type and published as one immutable snapshot,
+ * so lookups are plain map reads. The alerts added and removed by each change are kept as a
+ * numbered poll in a short history, and every change is announced as an MCP resource update of
+ * {@link #CHANGES_URI}.
+ */
+@Component
+public class ActiveAlerts {
+
+    public static final String CHANGES_URI = "weather://alerts/changes";
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveAlerts.class);
+
+    private static final int HISTORY = 100;
+
+    private record Snapshot(
+            Instant checkedAt,
+            Map<String, List<Alert.Feature>> byState,
+            Map<String, List<Alert.Feature>> byEvent,
+            Map<String, Alert.Feature> byId) {
+
+        static final Snapshot EMPTY = new Snapshot(Instant.EPOCH, Map.of(), Map.of(), Map.of());
+
+        Snapshot checked(Instant at) {
+            return new Snapshot(at, byState, byEvent, byId);
+        }
+    }
+
+    public record AlertSummary(
+            @JsonProperty("id") String id,
+            @JsonProperty("event") String event,
+            @JsonProperty("headline") String headline,
+            @JsonProperty("states") List<String> states) {
+    }
+
+    public record AlertChanges(
+            @JsonProperty("poll") long poll,
+            @JsonProperty("polledAt") Instant polledAt,
+            @JsonProperty("added") List<AlertSummary> added,
+            @JsonProperty("removed") List<AlertSummary> removed) {
+    }
+
+    private final WeatherApiClient api;
+    private final ObjectProvider<McpSyncServer> mcpServer;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "weather-alert-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final Deque<AlertChanges> history = new ArrayDeque<>();
+    private long latestPoll;
+
+    // Only touched by the poller thread
+    private String etag;
+    private String lastModified;
+
+    @Autowired
+    public ActiveAlerts(
+            WeatherApiClient api,
+            ObjectProvider<McpSyncServer> mcpServer,
+            @Value("${weather.alerts.poll-enabled:true}") boolean enabled,
+            @Value("${weather.alerts.poll-interval:60s}") Duration pollInterval) {
+        this(api, mcpServer, enabled, pollInterval, Clock.systemUTC());
+    }
+
+    ActiveAlerts(WeatherApiClient api, ObjectProvider<McpSyncServer> mcpServer, boolean enabled,
+                 Duration pollInterval, Clock clock) {
+        this.api = api;
+        this.mcpServer = mcpServer;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        // Missing three polls in a row means the index can no longer be trusted
+        this.maxAge = pollInterval.multipliedBy(3);
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * The active alerts for {@code state}, or {@code null} when the poller has not confirmed the
+     * index recently and the caller should ask the upstream instead.
+     */
+    public Alert forState(String state) {
+        Snapshot current = snapshot;
+        if (!isCurrent(current)) {
+            return null;
+        }
+        return new Alert(current.byState().getOrDefault(state.trim().toUpperCase(Locale.ROOT), List.of()));
+    }
+
+    @Tool(description = "Get active US weather alerts of one event type, e.g. Tornado Warning or Flood Watch")
+    public String GetAlertsByEvent(
+            @ToolParam(description = "The alert event type, e.g. Tornado Warning (case-insensitive).") String event) {
+        Snapshot current = snapshot;
+        if (!isCurrent(current)) {
+            return "Error: The active alert index is not available right now; use GetAlerts for a state instead.";
+        }
+        List<Alert.Feature> features = current.byEvent().getOrDefault(event.trim().toLowerCase(Locale.ROOT), List.of());
+        if (features.isEmpty()) {
+            return String.format("No active %s alerts", event);
+        }
+        String alertsText = features.stream()
+                .map(f -> String.format("- %s (%s)", f.properties().headline(),
+                        String.join(", ", states(f))))
+                .collect(Collectors.joining("\n"));
+        return String.format("Active %s alerts:\n%s", event, alertsText);
+    }
+
+    @Tool(description = "Get the US weather alerts issued or cleared since a previous poll of the alert feed. "
+            + "Pass the poll number from the previous answer to get only what is new.")
+    public String GetAlertChanges(
+            @ToolParam(description = "Poll number from a previous answer; the latest poll only if empty.",
+                    required = false) Long sincePoll) {
+        List<AlertChanges> changes = changesSince(sincePoll);
+        long latest = latestPoll();
+        if (changes.isEmpty()) {
+            return sincePoll == null ? "No alert changes recorded yet"
+                    : String.format("No alert changes since poll %d. Latest poll: %d", sincePoll, latest);
+        }
+        StringBuilder text = new StringBuilder();
+        for (AlertChanges change : changes) {
+            text.append(String.format("Poll %d at %s:%n", change.poll(), change.polledAt()));
+            change.added().forEach(a -> text.append(String.format("+ %s: %s (%s)%n", a.event(), a.headline(),
+                    String.join(", ", a.states()))));
+            change.removed().forEach(a -> text.append(String.format("- %s: %s (%s)%n", a.event(), a.headline(),
+                    String.join(", ", a.states()))));
+        }
+        return text.append("Latest poll: ").append(latest).toString();
+    }
+
+    /**
+     * Changes from polls after {@code sincePoll}, oldest first; just the latest poll's changes when
+     * {@code sincePoll} is {@code null}. Polls older than the history are no longer available.
+     */
+    public synchronized List<AlertChanges> changesSince(Long sincePoll) {
+        if (sincePoll == null) {
+            return history.isEmpty() ? List.of() : List.of(history.peekLast());
+        }
+        return history.stream().filter(change -> change.poll() > sincePoll).toList();
+    }
+
+    public synchronized long latestPoll() {
+        return latestPoll;
+    }
+
+    private boolean isCurrent(Snapshot current) {
+        return current.checkedAt().plus(maxAge).isAfter(clock.instant());
+    }
+
+    void poll() {
+        try {
+            ResponseEntity<Alert> response = api.get(Alert.class, headers -> {
+                if (etag != null) {
+                    headers.set(HttpHeaders.IF_NONE_MATCH, etag);
+                }
+                if (lastModified != null) {
+                    headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+                }
+            }, "/alerts/active").block();
+            if (response == null) {
+                throw new WeatherApiException("api.weather.gov returned no response for the alert feed");
+            }
+            // Only a 304 confirms the index, and only once a feed has been indexed; a 200 without an
+            // alert list is a failed poll
+            Instant now = clock.instant();
+            if (response.getStatusCode().value() == 304) {
+                if (snapshot == Snapshot.EMPTY) {
+                    throw new WeatherApiException("api.weather.gov answered 304 before any alert feed was indexed");
+                }
+                snapshot = snapshot.checked(now);
+                return;
+            }
+            if (response.getBody() == null || response.getBody().features() == null) {
+                throw new WeatherApiException("api.weather.gov returned no alert list");
+            }
+            etag = response.getHeaders().getETag();
+            lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+            Snapshot previous = snapshot;
+            Snapshot next = index(response.getBody().features(), now);
+            snapshot = next;
+            if (record(previous, next, now)) {
+                notifyChanged();
+            }
+        } catch (RuntimeException e) {
+            // The index ages out after a few failed polls and GetAlerts falls back to live lookups
+            log.warn("Polling active alerts failed: {}", e.getMessage());
+        }
+    }
+
+    private static Snapshot index(List<Alert.Feature> features, Instant checkedAt) {
+        Map<String, List<Alert.Feature>> byState = new HashMap<>();
+        Map<String, List<Alert.Feature>> byEvent = new HashMap<>();
+        Map<String, Alert.Feature> byId = new LinkedHashMap<>();
+        for (Alert.Feature feature : features) {
+            if (feature.properties() == null || feature.properties().id() == null) {
+                continue;
+            }
+            byId.put(feature.properties().id(), feature);
+            for (String state : states(feature)) {
+                byState.computeIfAbsent(state, s -> new ArrayList<>()).add(feature);
+            }
+            if (feature.properties().event() != null) {
+                byEvent.computeIfAbsent(feature.properties().event().toLowerCase(Locale.ROOT),
+                        e -> new ArrayList<>()).add(feature);
+            }
+        }
+        byState.replaceAll((state, list) -> List.copyOf(list));
+        byEvent.replaceAll((event, list) -> List.copyOf(list));
+        return new Snapshot(checkedAt, Map.copyOf(byState), Map.copyOf(byEvent), byId);
+    }
+
+    // Adds a numbered poll to the history when alerts were issued or cleared since the previous one;
+    // the first successful poll is the baseline, not a change
+    private synchronized boolean record(Snapshot previous, Snapshot next, Instant polledAt) {
+        if (previous == Snapshot.EMPTY) {
+            return false;
+        }
+        List<AlertSummary> added = next.byId().values().stream()
+                .filter(feature -> !previous.byId().containsKey(feature.properties().id()))
+                .map(ActiveAlerts::summary)
+                .toList();
+        List<AlertSummary> removed = previous.byId().values().stream()
+                .filter(feature -> !next.byId().containsKey(feature.properties().id()))
+                .map(ActiveAlerts::summary)
+                .toList();
+        if (added.isEmpty() && removed.isEmpty()) {
+            return false;
+        }
+        history.addLast(new AlertChanges(++latestPoll, polledAt, added, removed));
+        if (history.size() > HISTORY) {
+            history.removeFirst();
+        }
+        return true;
+    }
+
+    private void notifyChanged() {
+        McpSyncServer server = mcpServer.getIfAvailable();
+        if (server == null) {
+            return;
+        }
+        try {
+            server.notifyResourcesUpdated(new McpSchema.ResourcesUpdatedNotification(CHANGES_URI));
+        } catch (RuntimeException e) {
+            // Clients may come and go; the next change triggers another attempt
+            log.debug("Failed to send alert change notification", e);
+        }
+    }
+
+    private static AlertSummary summary(Alert.Feature feature) {
+        return new AlertSummary(feature.properties().id(), feature.properties().event(),
+                feature.properties().headline(), states(feature));
+    }
+
+    private static List<String> states(Alert.Feature feature) {
+        Alert.Geocode geocode = feature.properties().geocode();
+        if (geocode == null || geocode.ugc() == null) {
+            return List.of();
+        }
+        Set<String> states = new LinkedHashSet<>();
+        for (String ugc : geocode.ugc()) {
+            if (ugc != null && ugc.length() >= 2) {
+                states.add(ugc.substring(0, 2).toUpperCase(Locale.ROOT));
+            }
+        }
+        return List.copyOf(states);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.weather;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Stops calling an upstream that keeps failing. After {@code failureThreshold} consecutive
+ * failures the breaker opens and refuses calls for {@code openDuration}; then it lets a single
+ * trial call through, closing again if that succeeds and reopening if it fails.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.clock = clock;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+        }
+    }
+
+    // A cancelled call says nothing about the upstream, but must not keep the trial slot
+    synchronized void onCancel() {
+        trialInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.weather;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded LRU map whose entries also expire, each after its own time to live. An expired
+ * entry is no longer returned by {@link #get} but stays available to {@link #getStale} as a fallback
+ * until it becomes the least recently used.
+ */
+final class ExpiringLruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    ExpiringLruCache(int maxSize, Clock clock) {
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return entry.expiresAtMillis() > clock.millis() ? entry.value() : null;
+    }
+
+    // The value even if it has expired, as long as it expired no more than maxStale ago
+    synchronized V getStale(K key, Duration maxStale) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.expiresAtMillis() + maxStale.toMillis() <= clock.millis()) {
+            return null;
+        }
+        return entry.value();
+    }
+
+    // A zero or negative time to live keeps the value only as a stale fallback
+    synchronized void put(K key, V value, Duration ttl) {
+        if (value == null) {
+            return;
+        }
+        long ttlMillis = Math.max(0, ttl.toMillis());
+        entries.put(key, new Entry<>(value, clock.millis() + ttlMillis));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.weather;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.Arrays;
+
+/**
+ * Wraps every MCP tool callback in a Micrometer {@link Observation} named {@code mcp.tool}.
+ * <p>
+ * With actuator on the classpath each call becomes an {@code mcp.tool} timer tagged with the tool
+ * name, outcome and error, plus an {@code mcp.tool.active} long task timer; with a tracing
+ * bridge it also becomes a span. Observations named {@code mcp.tool} can be switched off with
+ * {@code management.observations.enable.mcp.tool=false}.
+ */
+public class ObservedToolCallbackProvider implements ToolCallbackProvider {
+
+    private static final String OBSERVATION_NAME = "mcp.tool";
+
+    private final ToolCallback[] toolCallbacks;
+
+    public ObservedToolCallbackProvider(ToolCallbackProvider delegate, ObservationRegistry observationRegistry) {
+        this.toolCallbacks = Arrays.stream(delegate.getToolCallbacks())
+                .map(callback -> new ObservedToolCallback(callback, observationRegistry))
+                .toArray(ToolCallback[]::new);
+    }
+
+    @Override
+    public ToolCallback[] getToolCallbacks() {
+        return toolCallbacks.clone();
+    }
+
+    private static final class ObservedToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+        private final ObservationRegistry observationRegistry;
+        private final String toolName;
+
+        ObservedToolCallback(ToolCallback delegate, ObservationRegistry observationRegistry) {
+            this.delegate = delegate;
+            this.observationRegistry = observationRegistry;
+            this.toolName = delegate.getToolDefinition().name();
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            Observation observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                    .contextualName("tool " + toolName)
+                    .lowCardinalityKeyValue("tool", toolName)
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                String result = toolContext == null ? delegate.call(toolInput) : delegate.call(toolInput, toolContext);
+                observation.lowCardinalityKeyValue("outcome", "success");
+                return result;
+            } catch (RuntimeException e) {
+                // Exceptions thrown by tool methods arrive wrapped; report the cause so the error tag
+                // tells them apart
+                Throwable cause = e instanceof ToolExecutionException && e.getCause() != null ? e.getCause() : e;
+                observation.lowCardinalityKeyValue("outcome", "error").error(cause);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+    }
+}
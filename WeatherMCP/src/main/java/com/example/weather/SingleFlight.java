@@ -0,0 +1,72 @@
+package com.example.weather;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent identical upstream calls into one. The first caller for a key makes the
+ * call; callers arriving while it is in flight wait for it and get the same result or exception.
+ * Nothing is kept once the call completes, so later callers start a fresh one.
+ * <p>
+ * Each lookup is counted in {@code weather.requests}, tagged with the call and whether it went
+ * {@code upstream} or was {@code coalesced}; coalesced over total is the coalescing ratio.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstream;
+    private final Counter coalesced;
+
+    SingleFlight(String call, MeterRegistry meterRegistry) {
+        this.upstream = counter(call, "upstream", meterRegistry);
+        this.coalesced = counter(call, "coalesced", meterRegistry);
+    }
+
+    V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+        upstream.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Rethrows the leader's own exception so callers handle it exactly as if they had made the call
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(String call, String source, MeterRegistry meterRegistry) {
+        return Counter.builder("weather.requests")
+                .description("Weather lookups by whether they called api.weather.gov or shared a call in flight")
+                .tag("call", call)
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.weather;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+/**
+ * Non-blocking access to api.weather.gov.
+ * <p>
+ * Connections come from a bounded pool, and a caller waiting too long for one fails rather than
+ * queueing. Every attempt has connect and response timeouts. Every call, retries included, has an
+ * overall deadline. 5xx and 429 responses and connection errors are retried with jittered
+ * exponential backoff. Repeated upstream failures open a {@link CircuitBreaker}, so calls fail
+ * fast until the upstream recovers; the circuit state is published as {@code weather.api.circuit.open}.
+ */
+@Component
+public class WeatherApiClient {
+
+    private final WebClient webClient;
+    private final Duration callTimeout;
+    private final Retry retry;
+    private final CircuitBreaker circuitBreaker;
+
+    // The Boot-provided builder records calls as http.client.requests metrics and spans
+    @Autowired
+    public WeatherApiClient(
+            WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry,
+            @Value("${weather.api.base-url:https://api.weather.gov}") String baseUrl,
+            @Value("${weather.api.http2:true}") boolean http2,
+            @Value("${weather.api.max-connections:50}") int maxConnections,
+            @Value("${weather.api.pending-acquire-max:200}") int pendingAcquireMax,
+            @Value("${weather.api.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${weather.api.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${weather.api.response-timeout:5s}") Duration responseTimeout,
+            @Value("${weather.api.call-timeout:15s}") Duration callTimeout,
+            @Value("${weather.api.retry.max-retries:2}") int maxRetries,
+            @Value("${weather.api.retry.min-backoff:200ms}") Duration minBackoff,
+            @Value("${weather.api.retry.max-backoff:2s}") Duration maxBackoff,
+            @Value("${weather.api.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${weather.api.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        this(webClientBuilder.clientConnector(new ReactorClientHttpConnector(
+                        httpClient(http2, maxConnections, pendingAcquireMax, pendingAcquireTimeout,
+                                connectTimeout, responseTimeout))),
+                baseUrl, callTimeout, maxRetries, minBackoff, maxBackoff,
+                new CircuitBreaker(failureThreshold, openDuration, Clock.systemUTC()));
+        Gauge.builder("weather.api.circuit.open", circuitBreaker,
+                        breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while calls to api.weather.gov are being refused or trialled")
+                .register(meterRegistry);
+    }
+
+    WeatherApiClient(WebClient.Builder webClientBuilder, String baseUrl, Duration callTimeout,
+                     int maxRetries, Duration minBackoff, Duration maxBackoff, CircuitBreaker circuitBreaker) {
+        this.webClient = webClientBuilder
+                .baseUrl(baseUrl)
+                .defaultHeader("Accept", "application/geo+json")
+                .defaultHeader("User-Agent", "weather-tool/1.0")
+                .build();
+        this.callTimeout = callTimeout;
+        this.retry = Retry.backoff(maxRetries, minBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(0.5)
+                .filter(WeatherApiClient::isRetryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * GETs {@code uri} (a path under the base URL or an absolute URL) and decodes the body as
+     * {@code type}. Fails with {@link WeatherApiException} when the deadline passes or the circuit is
+     * open, and with a {@code WebClientException} for any other failed request.
+     */
+    public <T> Mono<ResponseEntity<T>> get(Class<T> type, String uri, Object... uriVariables) {
+        return get(type, headers -> {
+        }, uri, uriVariables);
+    }
+
+    // As above, with extra request headers, e.g. for a conditional request; a 304 comes back with no body
+    public <T> Mono<ResponseEntity<T>> get(Class<T> type, Consumer<HttpHeaders> headers, String uri,
+                                           Object... uriVariables) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new WeatherApiException("api.weather.gov is failing; calls are paused for now"));
+            }
+            return webClient.get()
+                    .uri(uri, uriVariables)
+                    .headers(headers)
+                    .retrieve()
+                    .toEntity(type)
+                    .retryWhen(retry)
+                    .timeout(callTimeout)
+                    .onErrorMap(TimeoutException.class,
+                            e -> new WeatherApiException("No response from api.weather.gov within " + callTimeout))
+                    .doOnSuccess(response -> circuitBreaker.onSuccess())
+                    .doOnError(e -> {
+                        if (isUpstreamFailure(e)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            // The upstream answered, e.g. 404 for a point outside the US
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    /**
+     * Whether {@code error} means the upstream is unhealthy rather than that the request was wrong;
+     * only such failures count against the circuit breaker or justify serving stale data.
+     */
+    static boolean isUpstreamFailure(Throwable error) {
+        return isRetryable(error) || error instanceof WeatherApiException;
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return error instanceof WebClientRequestException;
+    }
+
+    private static HttpClient httpClient(boolean http2, int maxConnections, int pendingAcquireMax,
+                                         Duration pendingAcquireTimeout, Duration connectTimeout,
+                                         Duration responseTimeout) {
+        ConnectionProvider pool = ConnectionProvider.builder("weather-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .evictInBackground(Duration.ofSeconds(60))
+                .build();
+        HttpClient client = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        // HTTP/2 is negotiated over TLS; plain http URLs (a local stub server) stay on HTTP/1.1
+        return http2 ? client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11) : client;
+    }
+}
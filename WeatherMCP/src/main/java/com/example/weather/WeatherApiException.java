@@ -0,0 +1,11 @@
+package com.example.weather;
+
+/**
+ * api.weather.gov could not be reached in time, or the circuit breaker is not letting calls through.
+ */
+public class WeatherApiException extends RuntimeException {
+
+    public WeatherApiException(String message) {
+        super(message);
+    }
+}
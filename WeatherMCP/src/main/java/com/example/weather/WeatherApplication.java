@@ -1,7 +1,11 @@
 package com.example.weather;
 
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 public class WeatherApplication {
@@ -9,4 +13,15 @@ public class WeatherApplication {
     public static void main(String[] args) {
         SpringApplication.run(WeatherApplication.class, args);
     }
+
+    // Every tool call is observed as an mcp.tool timer. Not named weatherTools: that is the bean
+    // name of the WeatherTools configuration class
+    @Bean
+    public ToolCallbackProvider weatherToolCallbacks(WeatherService weatherService, WeatherBatchService weatherBatchService,
+                                             ActiveAlerts activeAlerts, ObservationRegistry observationRegistry) {
+        return new ObservedToolCallbackProvider(MethodToolCallbackProvider
+                .builder()
+                .toolObjects(weatherService, weatherBatchService, activeAlerts)
+                .build(), observationRegistry);
+    }
 }
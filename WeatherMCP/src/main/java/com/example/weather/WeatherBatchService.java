@@ -0,0 +1,103 @@
+package com.example.weather;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Forecasts and alerts for many places in one tool call. Each place is looked up through
+ * {@link WeatherService}, so caching and request coalescing still apply. Up to
+ * {@code weather.batch.parallelism} lookups per call run at once, on a scheduler shared by all
+ * batch calls, and results come back in input order.
+ */
+@Service
+public class WeatherBatchService {
+
+    // Two-letter codes accepted by /alerts/active?area=: the states plus DC
+    static final List<String> US_STATES = List.of(
+            "AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", "DC", "FL", "GA", "HI", "ID", "IL", "IN", "IA", "KS",
+            "KY", "LA", "ME", "MD", "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH", "NJ", "NM", "NY", "NC",
+            "ND", "OH", "OK", "OR", "PA", "RI", "SC", "SD", "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY");
+
+    private final WeatherService weatherService;
+    private final int parallelism;
+    private final int maxLocations;
+    private final Scheduler scheduler;
+
+    public WeatherBatchService(
+            WeatherService weatherService,
+            @Value("${weather.batch.parallelism:8}") int parallelism,
+            @Value("${weather.batch.threads:32}") int threads,
+            @Value("${weather.batch.max-locations:100}") int maxLocations) {
+        this.weatherService = weatherService;
+        this.parallelism = parallelism;
+        this.maxLocations = maxLocations;
+        this.scheduler = Schedulers.newBoundedElastic(threads,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "weather-batch");
+    }
+
+    public record Location(
+            @JsonProperty("latitude") double latitude,
+            @JsonProperty("longitude") double longitude) {
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.dispose();
+    }
+
+    @Tool(description = "Get weather forecasts for several locations at once, in the order given")
+    public String GetForecasts(
+            @ToolParam(description = "The locations to get forecasts for, each with latitude and longitude.")
+            List<Location> locations) {
+        if (locations == null || locations.isEmpty()) {
+            return "Error: Provide at least one location.";
+        }
+        if (locations.size() > maxLocations) {
+            return String.format("Error: At most %d locations per call; got %d.", maxLocations, locations.size());
+        }
+        return String.join("\n\n", fanOut(locations,
+                location -> weatherService.GetForecast(location.latitude(), location.longitude())));
+    }
+
+    @Tool(description = "Get weather alerts for several US states at once, or for every state")
+    public String GetAlertsForStates(
+            @ToolParam(description = "The US states to get alerts for (e.g., CA, NY, TX); every state if empty.",
+                    required = false) List<String> states) {
+        // A null or blank entry stays in the batch and gets GetAlerts' unknown-state error line
+        List<String> codes = states == null || states.isEmpty() ? US_STATES : states.stream()
+                .map(state -> state == null ? "" : state.trim().toUpperCase(Locale.ROOT))
+                .distinct()
+                .collect(Collectors.toList());
+        if (codes.size() > maxLocations) {
+            return String.format("Error: At most %d states per call; got %d.", maxLocations, codes.size());
+        }
+        return String.join("\n\n", fanOut(codes, weatherService::GetAlerts));
+    }
+
+    // The lookups block on their HTTP calls, so each runs on the batch scheduler; flatMapSequential
+    // keeps at most parallelism of them in flight and emits results in input order. One failed
+    // lookup becomes an error line rather than failing the batch
+    private <T> List<String> fanOut(List<T> inputs, Function<T, String> lookup) {
+        return Flux.fromIterable(inputs)
+                .flatMapSequential(input -> Mono.fromCallable(() -> lookup.apply(input))
+                                .subscribeOn(scheduler)
+                                .onErrorResume(e -> Mono.just(String.format("Error for %s: %s", input, e.getMessage()))),
+                        parallelism)
+                .collectList()
+                .block();
+    }
+}
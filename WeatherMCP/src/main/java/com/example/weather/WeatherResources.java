@@ -1,5 +1,7 @@
 package com.example.weather;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.spec.McpSchema;
 import org.springframework.context.annotation.Bean;
@@ -10,8 +12,35 @@ import java.util.List;
 @Configuration
 public class WeatherResources {
 
+    private static final int RECENT_POLLS = 10;
+
     // Add resources that provide a list of US state codes and names for weather alerts
 
 
     // Add resource that provides a list of major US cities with their coordinates for weather forecasts
+
+
+    // Alerts issued and cleared in the latest polls; ActiveAlerts announces updates of this resource.
+    // Not named weatherResources: that is the bean name of this configuration class
+    @Bean
+    public List<McpServerFeatures.SyncResourceSpecification> alertChangeResources(
+            ActiveAlerts activeAlerts, ObjectMapper objectMapper) {
+        McpSchema.Resource changes = new McpSchema.Resource(ActiveAlerts.CHANGES_URI, "Weather alert changes",
+                "US weather alerts issued and cleared in the latest polls. Use GetAlertChanges with sincePoll "
+                        + "to pull the rest.",
+                "application/json", null);
+        return List.of(new McpServerFeatures.SyncResourceSpecification(changes,
+                (exchange, request) -> readChanges(activeAlerts, objectMapper)));
+    }
+
+    private static McpSchema.ReadResourceResult readChanges(ActiveAlerts activeAlerts, ObjectMapper objectMapper) {
+        try {
+            String json = objectMapper.writeValueAsString(
+                    activeAlerts.changesSince(Math.max(0, activeAlerts.latestPoll() - RECENT_POLLS)));
+            return new McpSchema.ReadResourceResult(
+                    List.of(new McpSchema.TextResourceContents(ActiveAlerts.CHANGES_URI, "application/json", json)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize alert changes", e);
+        }
+    }
 }
@@ -1,30 +1,97 @@
 package com.example.weather;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.WebClientException;
 
 @Service
 public class WeatherService {
 
-    private static final String BASE_URL = "https://api.weather.gov";
+    private static final Logger log = LoggerFactory.getLogger(WeatherService.class);
 
-    private final RestClient restClient;
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|,)\\s*max-age\\s*=\\s*\"?(\\d+)");
 
-    public WeatherService() {
-        this.restClient = RestClient.builder()
-                .baseUrl(BASE_URL)
-                .defaultHeader("Accept", "application/geo+json")
-                .defaultHeader("User-Agent", "weather-tool/1.0")
-                .build();
+    // Areas api.weather.gov issues alerts for: the states and DC, plus the territories
+    private static final Set<String> ALERT_AREAS = Stream.concat(WeatherBatchService.US_STATES.stream(),
+            Stream.of("AS", "GU", "MP", "PR", "VI")).collect(Collectors.toUnmodifiableSet());
+
+    private final WeatherApiClient api;
+    private final ActiveAlerts activeAlerts;
+    private final Clock clock;
+
+    // Grid point for rounded coordinates -> forecast URL; changes only when NWS redraws its grids
+    private final ExpiringLruCache<String, String> forecastUrls;
+    private final Duration forecastUrlTtl;
+
+    // Forecast URL -> forecast, kept as long as the upstream Cache-Control/Expires headers allow
+    private final ExpiringLruCache<String, Forecast> forecasts;
+    private final Duration forecastDefaultTtl;
+    private final Duration forecastMaxTtl;
+
+    // State -> last alerts seen; never fresh, only served while the upstream is down
+    private final ExpiringLruCache<String, Alert> alerts;
+
+    // How old an expired entry may be and still be served when the upstream is down
+    private final Duration maxStale;
+
+    // Concurrent callers asking for the same thing share one upstream call
+    private final SingleFlight<String, String> pointLookups;
+    private final SingleFlight<String, Forecast> forecastLookups;
+    private final SingleFlight<String, Alert> alertLookups;
+
+    @Autowired
+    public WeatherService(
+            WeatherApiClient api,
+            ActiveAlerts activeAlerts,
+            MeterRegistry meterRegistry,
+            @Value("${weather.cache.points.max-size:1024}") int pointsMaxSize,
+            @Value("${weather.cache.points.ttl:24h}") Duration pointsTtl,
+            @Value("${weather.cache.forecast.max-size:256}") int forecastMaxSize,
+            @Value("${weather.cache.forecast.default-ttl:5m}") Duration forecastDefaultTtl,
+            @Value("${weather.cache.forecast.max-ttl:1h}") Duration forecastMaxTtl,
+            @Value("${weather.cache.max-stale:24h}") Duration maxStale) {
+        this(api, activeAlerts, Clock.systemUTC(), meterRegistry,
+                pointsMaxSize, pointsTtl, forecastMaxSize, forecastDefaultTtl, forecastMaxTtl, maxStale);
+    }
+
+    WeatherService(WeatherApiClient api, ActiveAlerts activeAlerts, Clock clock, MeterRegistry meterRegistry,
+                   int pointsMaxSize, Duration pointsTtl,
+                   int forecastMaxSize, Duration forecastDefaultTtl, Duration forecastMaxTtl, Duration maxStale) {
+        this.api = api;
+        this.activeAlerts = activeAlerts;
+        this.clock = clock;
+        this.forecastUrls = new ExpiringLruCache<>(pointsMaxSize, clock);
+        this.forecastUrlTtl = pointsTtl;
+        this.forecasts = new ExpiringLruCache<>(forecastMaxSize, clock);
+        this.forecastDefaultTtl = forecastDefaultTtl;
+        this.forecastMaxTtl = forecastMaxTtl;
+        this.alerts = new ExpiringLruCache<>(64, clock);
+        this.maxStale = maxStale;
+        this.pointLookups = new SingleFlight<>("points", meterRegistry);
+        this.forecastLookups = new SingleFlight<>("forecast", meterRegistry);
+        this.alertLookups = new SingleFlight<>("alerts", meterRegistry);
     }
 
     // Record classes for JSON deserialization
@@ -60,7 +127,14 @@ public class WeatherService {
         @JsonIgnoreProperties(ignoreUnknown = true)
         public record Properties(
                 @JsonProperty("event") String event,
-                @JsonProperty("headline") String headline) {
+                @JsonProperty("headline") String headline,
+                @JsonProperty("id") String id,
+                @JsonProperty("geocode") Geocode geocode) {
+        }
+
+        // UGC zone and county codes start with the state, e.g. CAZ041
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public record Geocode(@JsonProperty("UGC") List<String> ugc) {
         }
     }
 
@@ -76,20 +150,7 @@ public class WeatherService {
             @ToolParam(description = "The latitude of the location to get the forecast for.") double latitude,
             @ToolParam(description = "The longitude of the location to get the forecast for.") double longitude) {
         try {
-            // Get points data
-            var points = restClient.get()
-                    .uri("/points/{latitude},{longitude}", latitude, longitude)
-                    .retrieve()
-                    .body(Points.class);
-
-            // Get forecast URL from points
-            String forecastUrl = points.properties().forecast();
-
-            // Get forecast data
-            var forecast = restClient.get()
-                    .uri(forecastUrl)
-                    .retrieve()
-                    .body(Forecast.class);
+            Forecast forecast = forecast(forecastUrl(latitude, longitude));
 
             // Format forecast text (first 3 periods)
             String forecastText = forecast.properties().periods().stream()
@@ -105,11 +166,95 @@ public class WeatherService {
 
         } catch (NumberFormatException ex) {
             return String.format("Error: Invalid latitude or longitude format. Please provide valid numbers.");
-        } catch (RestClientException ex) {
+        } catch (WebClientException | WeatherApiException ex) {
             return String.format("Error retrieving forecast: %s", ex.getMessage());
         }
     }
 
+    // NWS resolves points to 4 decimal places, so nearby queries for the same city share an entry
+    private String forecastUrl(double latitude, double longitude) {
+        String lat = String.format(Locale.ROOT, "%.4f", latitude);
+        String lon = String.format(Locale.ROOT, "%.4f", longitude);
+        String point = lat + "," + lon;
+        return lookup(forecastUrls, pointLookups, point, () -> {
+            ResponseEntity<Points> response = api.get(Points.class, "/points/{latitude},{longitude}", lat, lon).block();
+            Points points = response == null ? null : response.getBody();
+            if (points == null || points.properties() == null || points.properties().forecast() == null) {
+                throw new WeatherApiException("api.weather.gov returned no forecast link for " + point);
+            }
+            String url = points.properties().forecast();
+            forecastUrls.put(point, url, forecastUrlTtl);
+            return url;
+        });
+    }
+
+    private Forecast forecast(String forecastUrl) {
+        return lookup(forecasts, forecastLookups, forecastUrl, () -> {
+            ResponseEntity<Forecast> response = api.get(Forecast.class, forecastUrl).block();
+            Forecast forecast = response == null ? null : response.getBody();
+            if (forecast == null || forecast.properties() == null || forecast.properties().periods() == null) {
+                throw new WeatherApiException("api.weather.gov returned no forecast periods");
+            }
+            if (storable(response.getHeaders())) {
+                forecasts.put(forecastUrl, forecast, freshness(response.getHeaders()));
+            }
+            return forecast;
+        });
+    }
+
+    // A fresh cached value, else one upstream call shared with concurrent callers; when the upstream
+    // is down, the cached value even if expired, as long as it is no older than max-stale
+    private <T> T lookup(ExpiringLruCache<String, T> cache, SingleFlight<String, T> lookups, String key,
+                         Supplier<T> fetch) {
+        T cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return lookups.execute(key, fetch);
+        } catch (RuntimeException e) {
+            T stale = WeatherApiClient.isUpstreamFailure(e) ? cache.getStale(key, maxStale) : null;
+            if (stale == null) {
+                throw e;
+            }
+            log.warn("Serving stale data for {}: {}", key, e.getMessage());
+            return stale;
+        }
+    }
+
+    // no-store forbids keeping the response at all, not even as a stale fallback
+    private static boolean storable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !cacheControl.contains("no-store");
+    }
+
+    // How long a storable response may be reused: max-age less Age, else Expires less Date, else the
+    // default; never longer than the configured maximum, and for no-cache only as a stale fallback
+    private Duration freshness(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        Duration ttl = forecastDefaultTtl;
+        if (cacheControl != null && cacheControl.contains("no-cache")) {
+            return Duration.ZERO;
+        }
+        Matcher maxAge = cacheControl == null ? null : MAX_AGE.matcher(cacheControl);
+        if (maxAge != null && maxAge.find()) {
+            ttl = Duration.ofSeconds(Long.parseLong(maxAge.group(1)) - age(headers));
+        } else if (headers.getExpires() >= 0) {
+            long date = headers.getDate() >= 0 ? headers.getDate() : clock.millis();
+            ttl = Duration.ofMillis(headers.getExpires() - date);
+        }
+        return ttl.compareTo(forecastMaxTtl) > 0 ? forecastMaxTtl : ttl;
+    }
+
+    private static long age(HttpHeaders headers) {
+        try {
+            String age = headers.getFirst(HttpHeaders.AGE);
+            return age == null ? 0 : Long.parseLong(age.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     /**
      * Get weather alerts for a US state
      *
@@ -119,14 +264,31 @@ public class WeatherService {
     @Tool(description = "Get weather alerts for a US state")
     public String GetAlerts(
             @ToolParam(description = "The US state to get alerts for (e.g., CA, NY, TX).") String state) {
+        // One key for "ca", " CA" and "CA", and unknown codes rejected the same way on both paths
+        String area = state == null ? "" : state.trim().toUpperCase(Locale.ROOT);
+        if (!ALERT_AREAS.contains(area)) {
+            return String.format("Error: Unknown US state code '%s'. Try using a valid US state code (e.g., CA, NY, TX).",
+                    state);
+        }
         try {
-            Alert alert = restClient.get()
-                    .uri("/alerts/active?area={state}", state)
-                    .retrieve()
-                    .body(Alert.class);
+            // Answered from the polled index while it is current, from the upstream otherwise
+            Alert alert = activeAlerts.forState(area);
+            if (alert == null) {
+                alert = lookup(alerts, alertLookups, area, () -> {
+                    ResponseEntity<Alert> response = api.get(Alert.class, "/alerts/active?area={state}", area).block();
+                    Alert latest = response == null ? null : response.getBody();
+                    if (latest == null || latest.features() == null) {
+                        throw new WeatherApiException("api.weather.gov returned no alert list");
+                    }
+                    if (storable(response.getHeaders())) {
+                        alerts.put(area, latest, Duration.ZERO);
+                    }
+                    return latest;
+                });
+            }
 
             if (alert.features().isEmpty()) {
-                return String.format("No active weather alerts for %s", state);
+                return String.format("No active weather alerts for %s", area);
             }
 
             String alertsText = alert.features().stream()
@@ -135,9 +297,9 @@ public class WeatherService {
                             f.properties().headline()))
                     .collect(Collectors.joining("\n"));
 
-            return String.format("Active weather alerts for %s:\n%s", state, alertsText);
+            return String.format("Active weather alerts for %s:\n%s", area, alertsText);
 
-        } catch (RestClientException ex) {
+        } catch (WebClientException | WeatherApiException ex) {
             return String.format("Error retrieving alerts: %s. Try using a valid US state code (e.g., CA, NY, TX).",
                     ex.getMessage());
         }
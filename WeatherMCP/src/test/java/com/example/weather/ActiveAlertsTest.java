@@ -0,0 +1,114 @@
+package com.example.weather;
+
+import com.example.weather.ActiveAlerts.AlertChanges;
+import com.example.weather.ActiveAlerts.AlertSummary;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ActiveAlertsTest {
+
+    private static final String LAST_MODIFIED = "Wed, 01 Jan 2030 00:00:00 GMT";
+
+    private final TestClock clock = new TestClock();
+    private StubWeatherApi api;
+    private ActiveAlerts activeAlerts;
+
+    @BeforeEach
+    void setUp() {
+        api = new StubWeatherApi((uri, variables, headers) -> feed("\"v1\"", feature("a", "Heat Advisory", "CAZ041")));
+        activeAlerts = new ActiveAlerts(api, new StaticListableBeanFactory().getBeanProvider(McpSyncServer.class),
+                false, Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void unchangedFeedIsRevalidatedWithItsEtag() {
+        activeAlerts.poll();
+        assertNull(api.requests().get(0).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertNull(api.requests().get(0).getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+        assertEquals(1, activeAlerts.forState("CA").features().size());
+
+        api.answer((uri, variables, headers) -> new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+        clock.advance(Duration.ofSeconds(150));
+        activeAlerts.poll();
+        assertEquals("\"v1\"", api.requests().get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(LAST_MODIFIED, api.requests().get(1).getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+
+        // The 304 confirmed the index, so it stays current for three more poll intervals
+        clock.advance(Duration.ofSeconds(150));
+        assertEquals(1, activeAlerts.forState("CA").features().size());
+        assertEquals(List.of(), activeAlerts.changesSince(0L));
+
+        clock.advance(Duration.ofSeconds(60));
+        assertNull(activeAlerts.forState("CA"), "unconfirmed for three poll intervals");
+    }
+
+    @Test
+    void changedFeedRecordsAddedAndRemovedAlerts() {
+        activeAlerts.poll();
+        assertEquals(List.of(), activeAlerts.changesSince(null), "the first poll is the baseline");
+        assertEquals(0, activeAlerts.latestPoll());
+
+        api.answer((uri, variables, headers) -> feed("\"v2\"",
+                feature("b", "Flood Watch", "NYZ072"), feature("c", "Tornado Warning", "TXC113")));
+        activeAlerts.poll();
+        assertEquals("\"v1\"", api.requests().get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1, activeAlerts.latestPoll());
+        List<AlertChanges> changes = activeAlerts.changesSince(0L);
+        assertEquals(1, changes.size());
+        assertEquals(List.of(summary("b", "Flood Watch", "NY"), summary("c", "Tornado Warning", "TX")),
+                changes.get(0).added());
+        assertEquals(List.of(summary("a", "Heat Advisory", "CA")), changes.get(0).removed());
+        assertEquals(changes, activeAlerts.changesSince(null));
+
+        // The same feed again adds nothing to the history
+        activeAlerts.poll();
+        assertEquals("\"v2\"", api.requests().get(2).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1, activeAlerts.latestPoll());
+        assertEquals(List.of(), activeAlerts.changesSince(1L));
+    }
+
+    @Test
+    void feedWithoutABodyIsAFailedPoll() {
+        api.answer((uri, variables, headers) -> new ResponseEntity<>(HttpStatus.OK));
+        activeAlerts.poll();
+        assertNull(activeAlerts.forState("CA"), "nothing was indexed, so the live path answers");
+
+        api.answer((uri, variables, headers) -> feed("\"v1\"", feature("a", "Heat Advisory", "CAZ041")));
+        activeAlerts.poll();
+        assertEquals(1, activeAlerts.forState("CA").features().size());
+
+        // Unlike a 304, an empty 200 does not confirm the index
+        api.answer((uri, variables, headers) -> new ResponseEntity<>(HttpStatus.OK));
+        clock.advance(Duration.ofSeconds(150));
+        activeAlerts.poll();
+        clock.advance(Duration.ofSeconds(60));
+        assertNull(activeAlerts.forState("CA"));
+    }
+
+    private static ResponseEntity<WeatherService.Alert> feed(String etag, WeatherService.Alert.Feature... features) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.set(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED);
+        return new ResponseEntity<>(new WeatherService.Alert(List.of(features)), headers, HttpStatus.OK);
+    }
+
+    private static WeatherService.Alert.Feature feature(String id, String event, String ugc) {
+        return new WeatherService.Alert.Feature(new WeatherService.Alert.Properties(event, event + " headline", id,
+                new WeatherService.Alert.Geocode(List.of(ugc))));
+    }
+
+    private static AlertSummary summary(String id, String event, String state) {
+        return new AlertSummary(id, event, event + " headline", List.of(state));
+    }
+}
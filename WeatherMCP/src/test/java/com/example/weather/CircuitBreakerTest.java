@@ -0,0 +1,75 @@
+package com.example.weather;
+
+import com.example.weather.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private final TestClock clock = new TestClock();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(30), clock);
+
+    @Test
+    void opensAfterConsecutiveFailuresOnly() {
+        fail(2);
+        breaker.onSuccess();
+        fail(2);
+        assertEquals(State.CLOSED, breaker.state(), "a success resets the count");
+
+        fail(1);
+        assertEquals(State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void letsOneTrialThroughOnceTheOpenPeriodEnds() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(), "only one trial at a time");
+
+        breaker.onSuccess();
+        assertEquals(State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedTrialReopensForAnotherFullPeriod() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(State.OPEN, breaker.state());
+
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(breaker.tryAcquire());
+        clock.advance(Duration.ofSeconds(1));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void cancelledTrialFreesTheSlot() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(breaker.tryAcquire());
+        breaker.onCancel();
+        assertEquals(State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+}
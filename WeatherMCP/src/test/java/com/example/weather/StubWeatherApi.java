@@ -0,0 +1,80 @@
+package com.example.weather;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A {@link WeatherApiClient} that answers from a handler instead of api.weather.gov, after an
+ * injected latency, and counts the calls per URI template and keeps their request headers.
+ */
+class StubWeatherApi extends WeatherApiClient {
+
+    interface Handler {
+        ResponseEntity<?> answer(String uri, Object[] uriVariables, HttpHeaders requestHeaders) throws Exception;
+    }
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final List<HttpHeaders> requests = new CopyOnWriteArrayList<>();
+    private volatile Handler handler;
+    private volatile Duration latency = Duration.ZERO;
+
+    StubWeatherApi(Handler handler) {
+        super(WebClient.builder(), "http://stub", Duration.ofSeconds(10), 0, Duration.ofMillis(10),
+                Duration.ofMillis(10), new CircuitBreaker(5, Duration.ofSeconds(30), Clock.systemUTC()));
+        this.handler = handler;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Mono<ResponseEntity<T>> get(Class<T> type, Consumer<HttpHeaders> headers, String uri,
+                                           Object... uriVariables) {
+        return Mono.fromCallable(() -> {
+            calls.computeIfAbsent(uri, key -> new AtomicInteger()).incrementAndGet();
+            HttpHeaders requestHeaders = new HttpHeaders();
+            headers.accept(requestHeaders);
+            requests.add(requestHeaders);
+            if (!latency.isZero()) {
+                Thread.sleep(latency.toMillis());
+            }
+            return (ResponseEntity<T>) handler.answer(uri, uriVariables, requestHeaders);
+        });
+    }
+
+    void answer(Handler handler) {
+        this.handler = handler;
+    }
+
+    void latency(Duration latency) {
+        this.latency = latency;
+    }
+
+    int calls(String uri) {
+        AtomicInteger count = calls.get(uri);
+        return count == null ? 0 : count.get();
+    }
+
+    // The headers sent with each call, in order
+    List<HttpHeaders> requests() {
+        return requests;
+    }
+
+    static <T> ResponseEntity<T> ok(T body, String cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
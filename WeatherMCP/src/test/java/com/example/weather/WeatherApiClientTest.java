@@ -0,0 +1,169 @@
+package com.example.weather;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the real client over HTTP against a local stand-in for api.weather.gov that can be slowed
+ * down or made to fail, so deadlines, retries and cache headers are checked end to end.
+ */
+class WeatherApiClientTest {
+
+    private static final String POINTS = "/points/39.7456,-97.0892";
+    private static final String FORECAST = "/gridpoints/TOP/31,80/forecast";
+    // Far above the stub's latency on a loaded build machine, far below the slow upstream's
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final Queue<Integer> failures = new ConcurrentLinkedQueue<>();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile String forecastCacheControl = "max-age=600";
+
+    private ExecutorService executor;
+    private HttpServer server;
+    private WeatherApiClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        client = new WeatherApiClient(WebClient.builder(), baseUrl(), CALL_TIMEOUT, 2, Duration.ofMillis(10),
+                Duration.ofMillis(50), new CircuitBreaker(5, Duration.ofSeconds(30), Clock.systemUTC()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @Timeout(15)
+    void slowUpstreamFailsAtTheCallDeadline() {
+        latency = Duration.ofSeconds(5);
+        long started = System.nanoTime();
+        assertThrows(WeatherApiException.class, () -> client.get(String.class, POINTS).block());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        assertTrue(elapsedMillis < 4_000, "gave up after " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @Timeout(10)
+    void transientFailuresAreRetried() {
+        failures.add(503);
+        failures.add(503);
+        WeatherService.Forecast forecast = client.get(WeatherService.Forecast.class, FORECAST).block().getBody();
+        assertEquals(2, forecast.properties().periods().size());
+        assertEquals(3, hits(FORECAST));
+    }
+
+    @Test
+    @Timeout(10)
+    void forecastIsCachedForItsMaxAge() {
+        latency = Duration.ofMillis(100);
+        WeatherService service = service();
+        String first = service.GetForecast(39.7456, -97.0892);
+        assertTrue(first.contains("Tonight: 50°F, Clear"), first);
+        assertEquals(first, service.GetForecast(39.7456, -97.0892));
+        assertEquals(1, hits(POINTS));
+        assertEquals(1, hits(FORECAST));
+    }
+
+    @Test
+    @Timeout(10)
+    void noStoreForecastIsFetchedEveryTimeAndNeverServedStale() {
+        forecastCacheControl = "no-store";
+        latency = Duration.ofMillis(100);
+        WeatherService service = service();
+        String first = service.GetForecast(39.7456, -97.0892);
+        assertEquals(first, service.GetForecast(39.7456, -97.0892));
+        assertEquals(2, hits(FORECAST));
+
+        // Every attempt, retries included, fails
+        for (int i = 0; i < 3; i++) {
+            failures.add(503);
+        }
+        String down = service.GetForecast(39.7456, -97.0892);
+        assertTrue(down.startsWith("Error retrieving forecast"), down);
+    }
+
+    private WeatherService service() {
+        ActiveAlerts activeAlerts = new ActiveAlerts(client,
+                new StaticListableBeanFactory().getBeanProvider(McpSyncServer.class), false, Duration.ofSeconds(60));
+        return new WeatherService(client, activeAlerts, Clock.systemUTC(), new SimpleMeterRegistry(),
+                100, Duration.ofHours(24), 100, Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofHours(24));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Integer failure = path.equals(FORECAST) ? failures.poll() : null;
+        if (failure != null) {
+            exchange.sendResponseHeaders(failure, -1);
+            exchange.close();
+        } else if (path.equals(POINTS)) {
+            respond(exchange, "max-age=86400",
+                    "{\"properties\":{\"forecast\":\"" + baseUrl() + FORECAST + "\"}}");
+        } else if (path.equals(FORECAST)) {
+            respond(exchange, forecastCacheControl, "{\"properties\":{\"periods\":["
+                    + "{\"name\":\"Tonight\",\"temperature\":50,\"temperatureUnit\":\"F\",\"shortForecast\":\"Clear\"},"
+                    + "{\"name\":\"Tomorrow\",\"temperature\":72,\"temperatureUnit\":\"F\",\"shortForecast\":\"Sunny\"}]}}");
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String cacheControl, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/geo+json");
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private int hits(String path) {
+        AtomicInteger count = hits.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
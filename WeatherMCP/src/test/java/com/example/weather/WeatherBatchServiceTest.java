@@ -0,0 +1,63 @@
+package com.example.weather;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherBatchServiceTest {
+
+    private static final String ALERTS = "/alerts/active?area={state}";
+
+    private StubWeatherApi api;
+    private WeatherBatchService batch;
+
+    @BeforeEach
+    void setUp() {
+        api = new StubWeatherApi((uri, variables, headers) ->
+                StubWeatherApi.ok(WeatherServiceTest.alert("Heat Advisory"), null));
+        ActiveAlerts activeAlerts = new ActiveAlerts(api,
+                new StaticListableBeanFactory().getBeanProvider(McpSyncServer.class), false, Duration.ofSeconds(60));
+        WeatherService service = new WeatherService(api, activeAlerts, new TestClock(), new SimpleMeterRegistry(),
+                100, Duration.ofHours(24), 100, Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofHours(24));
+        batch = new WeatherBatchService(service, 4, 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batch.close();
+    }
+
+    @Test
+    void nullAndBlankStatesBecomeErrorLines() {
+        String result = batch.GetAlertsForStates(Arrays.asList(" ca", null, "NY", "  "));
+        List<String> lines = List.of(result.split("\n\n"));
+
+        assertEquals(3, lines.size(), result);
+        assertTrue(lines.get(0).startsWith("Active weather alerts for CA:"), lines.get(0));
+        assertTrue(lines.get(1).startsWith("Error: Unknown US state code ''"), lines.get(1));
+        assertTrue(lines.get(2).startsWith("Active weather alerts for NY:"), lines.get(2));
+        assertEquals(2, api.calls(ALERTS), "only the valid states reach the upstream");
+    }
+
+    @Test
+    void tooManyStatesAreRefusedBeforeAnyLookup() {
+        WeatherBatchService small = new WeatherBatchService(null, 4, 4, 2);
+        try {
+            assertEquals("Error: At most 2 states per call; got 3.",
+                    small.GetAlertsForStates(List.of("CA", "NY", "TX")));
+        } finally {
+            small.close();
+        }
+        assertEquals(0, api.calls(ALERTS));
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.weather;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherServiceTest {
+
+    private static final String POINTS = "/points/{latitude},{longitude}";
+    private static final String FORECAST = "https://api.weather.gov/gridpoints/TOP/31,80/forecast";
+    private static final int CALLERS = 16;
+
+    private final TestClock clock = new TestClock();
+    private StubWeatherApi api;
+    private WeatherService service;
+
+    @BeforeEach
+    void setUp() {
+        api = new StubWeatherApi((uri, variables, headers) -> answer(uri, "max-age=600"));
+        // Never polled, so every GetAlerts goes to the upstream
+        ActiveAlerts activeAlerts = new ActiveAlerts(api,
+                new StaticListableBeanFactory().getBeanProvider(McpSyncServer.class), false, Duration.ofSeconds(60));
+        service = new WeatherService(api, activeAlerts, clock, new SimpleMeterRegistry(),
+                100, Duration.ofHours(24), 100, Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofHours(24));
+    }
+
+    @Test
+    void forecastIsReusedForItsMaxAge() {
+        String first = service.GetForecast(39.7456, -97.0892);
+        assertTrue(first.contains("Tonight: 50°F, Clear"), first);
+        assertEquals(first, service.GetForecast(39.7456, -97.0892));
+        assertEquals(1, api.calls(POINTS));
+        assertEquals(1, api.calls(FORECAST));
+
+        clock.advance(Duration.ofSeconds(601));
+        assertEquals(first, service.GetForecast(39.7456, -97.0892));
+        assertEquals(1, api.calls(POINTS), "points are kept for a day");
+        assertEquals(2, api.calls(FORECAST));
+    }
+
+    @Test
+    void expiredForecastIsServedStaleWhileTheUpstreamIsDown() {
+        String fresh = service.GetForecast(39.7456, -97.0892);
+        api.answer((uri, variables, headers) -> {
+            throw new WeatherApiException("No response from api.weather.gov within PT10S");
+        });
+
+        clock.advance(Duration.ofHours(1));
+        assertEquals(fresh, service.GetForecast(39.7456, -97.0892));
+
+        clock.advance(Duration.ofHours(24));
+        String expired = service.GetForecast(39.7456, -97.0892);
+        assertTrue(expired.startsWith("Error retrieving forecast"), expired);
+    }
+
+    @Test
+    void noStoreForecastIsNeverReusedNorServedStale() {
+        api.answer((uri, variables, headers) -> answer(uri, "no-store"));
+        String first = service.GetForecast(39.7456, -97.0892);
+        assertEquals(first, service.GetForecast(39.7456, -97.0892));
+        assertEquals(2, api.calls(FORECAST));
+
+        api.answer((uri, variables, headers) -> {
+            if (uri.equals(FORECAST)) {
+                throw new WeatherApiException("No response from api.weather.gov within PT10S");
+            }
+            return answer(uri, null);
+        });
+        String down = service.GetForecast(39.7456, -97.0892);
+        assertTrue(down.startsWith("Error retrieving forecast"), down);
+    }
+
+    @Test
+    void noStoreAlertsAreNotServedStale() {
+        api.answer((uri, variables, headers) -> StubWeatherApi.ok(alert("Heat Advisory"), "no-store"));
+        assertTrue(service.GetAlerts("CA").contains("Heat Advisory"));
+
+        api.answer((uri, variables, headers) -> {
+            throw new WeatherApiException("No response from api.weather.gov within PT10S");
+        });
+        String down = service.GetAlerts("CA");
+        assertTrue(down.startsWith("Error retrieving alerts"), down);
+    }
+
+    @Test
+    void alertsAreServedStaleWhileTheUpstreamIsDown() {
+        api.answer((uri, variables, headers) -> StubWeatherApi.ok(alert("Heat Advisory"), null));
+        String fresh = service.GetAlerts("CA");
+
+        api.answer((uri, variables, headers) -> {
+            throw new WeatherApiException("No response from api.weather.gov within PT10S");
+        });
+        assertEquals(fresh, service.GetAlerts("CA"));
+        assertEquals(2, api.calls("/alerts/active?area={state}"), "alerts are only a stale fallback");
+    }
+
+    @Test
+    void stateCodesAreNormalizedAndCheckedOnBothPaths() {
+        List<Object> areas = new CopyOnWriteArrayList<>();
+        api.answer((uri, variables, headers) -> {
+            areas.add(variables.length == 0 ? "" : variables[0]);
+            return StubWeatherApi.ok(alert("Heat Advisory"), null);
+        });
+        String live = service.GetAlerts(" ca ");
+        assertEquals("Active weather alerts for CA:\n- Heat Advisory: Heat Advisory until 8 PM", live);
+        assertEquals(List.of("CA"), areas);
+        String unknown = service.GetAlerts("xx");
+        assertEquals("Error: Unknown US state code 'xx'. Try using a valid US state code (e.g., CA, NY, TX).", unknown);
+        assertEquals(List.of("CA"), areas, "unknown codes never reach the upstream");
+
+        // The same answers once the polled index is current
+        ActiveAlerts polled = new ActiveAlerts(api,
+                new StaticListableBeanFactory().getBeanProvider(McpSyncServer.class), false, Duration.ofSeconds(60), clock);
+        polled.poll();
+        WeatherService indexed = new WeatherService(api, polled, clock, new SimpleMeterRegistry(),
+                100, Duration.ofHours(24), 100, Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofHours(24));
+        assertEquals(live, indexed.GetAlerts("Ca"));
+        assertEquals(unknown, indexed.GetAlerts("xx"));
+        assertEquals("No active weather alerts for NY", indexed.GetAlerts("ny"));
+        assertEquals(List.of("CA", ""), areas, "answered from the index");
+    }
+
+    @Test
+    void emptyResponsesAreReportedAsUpstreamErrors() {
+        api.answer((uri, variables, headers) -> StubWeatherApi.ok(null, null));
+        String points = service.GetForecast(39.7456, -97.0892);
+        assertEquals("Error retrieving forecast: api.weather.gov returned no forecast link for 39.7456,-97.0892", points);
+        String alerts = service.GetAlerts("CA");
+        assertTrue(alerts.startsWith("Error retrieving alerts: api.weather.gov returned no alert list"), alerts);
+
+        api.answer((uri, variables, headers) -> uri.equals(POINTS) ? answer(uri, null)
+                : StubWeatherApi.ok(new WeatherService.Forecast(null), null));
+        String forecast = service.GetForecast(39.7456, -97.0892);
+        assertEquals("Error retrieving forecast: api.weather.gov returned no forecast periods", forecast);
+    }
+
+    @Test
+    @Timeout(30)
+    void concurrentIdenticalCallsShareOneUpstreamRequest() throws Exception {
+        api.latency(Duration.ofMillis(500));
+        List<String> results = concurrently(() -> service.GetForecast(39.7456, -97.0892));
+
+        assertEquals(1, api.calls(POINTS));
+        assertEquals(1, api.calls(FORECAST));
+        assertEquals(1, new HashSet<>(results).size(), "every caller gets the same forecast");
+        assertTrue(results.get(0).contains("Tonight: 50°F, Clear"), results.get(0));
+    }
+
+    @Test
+    @Timeout(30)
+    void upstreamErrorReachesEveryWaiter() throws Exception {
+        api.latency(Duration.ofMillis(500));
+        api.answer((uri, variables, headers) -> {
+            throw new WeatherApiException("api.weather.gov is failing; calls are paused for now");
+        });
+        List<String> results = concurrently(() -> service.GetForecast(39.7456, -97.0892));
+
+        assertEquals(1, api.calls(POINTS));
+        for (String result : results) {
+            assertEquals("Error retrieving forecast: api.weather.gov is failing; calls are paused for now", result);
+        }
+    }
+
+    // Starts CALLERS threads at once on the same call and collects what each of them got
+    private static List<String> concurrently(Callable<String> call) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> callers = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                callers.add(threads.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<String> results = new ArrayList<>();
+            for (Future<String> caller : callers) {
+                results.add(caller.get());
+            }
+            return results;
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    static ResponseEntity<?> answer(String uri, String forecastCacheControl) {
+        if (uri.equals(POINTS)) {
+            return StubWeatherApi.ok(new WeatherService.Points(new WeatherService.Points.Props(FORECAST)), null);
+        }
+        return StubWeatherApi.ok(forecast(), forecastCacheControl);
+    }
+
+    static WeatherService.Forecast forecast() {
+        return new WeatherService.Forecast(new WeatherService.Forecast.Props(List.of(
+                new WeatherService.Forecast.Period("Tonight", 50, "F", "Clear"),
+                new WeatherService.Forecast.Period("Tomorrow", 72, "F", "Sunny"))));
+    }
+
+    static WeatherService.Alert alert(String event) {
+        return new WeatherService.Alert(List.of(new WeatherService.Alert.Feature(new WeatherService.Alert.Properties(
+                event, event + " until 8 PM", "urn:alert:" + event.hashCode(),
+                new WeatherService.Alert.Geocode(List.of("CAZ041"))))));
+    }
+}